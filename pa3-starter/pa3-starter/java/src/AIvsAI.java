@@ -5,8 +5,9 @@
 
 // Github copilot was used to cleanup/revise the eval() method.
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -15,161 +16,19 @@ import java.util.Scanner;
 public class AIvsAI {
 
     /**
-     * Represents a specific state of a tic-tac-toe board (the positions of the
-     * X's, O's, and open spots).
+     * The ExtremeTicTacToe board with this game's own evaluation function,
+     * which checks the diagonals the same way it checks the rows and columns.
+     * A tuned evaluator, if set, is used instead.
      */
-    public class TicTacToeState implements GameState {
-        public char[] board;
-        public char lastPlayer;
-        public int move;
+    public static class AIvsAIBoard extends ExtremeBoard {
 
-        /**
-         * Initializes a tic-tac-toe state.
-         * 
-         * @param board Should be 16 characters long, each character 
-         *              representing one spot on the board. Valid 
-         *              characters are: X, O, and ' ' (space).
-         * @param lastPlayer The player who made the most recent move.
-         * @param move The spot selected in the most recent move.
-         */
-        public TicTacToeState(char[] board, char lastPlayer, int move){
-            this.board = board;
-            this.lastPlayer = lastPlayer;
-            this.move = move;
-        }
-
-        /**
-         * Updates the given spot on the board with the player's mark.
-         * 
-         * @param player The player who made the most recent move (should be X 
-         *               or O)
-         * @param move The spot selected in the most recent move, should be in
-         *             the range [1,16].
-         */
-        public void makeMove(char player, int move){
-            board[move-1] = player;
-            this.move = move;
-            this.lastPlayer = player;
-        }
-        
-        /**
-         * @return A summary of this state as a string, including the board, 
-         *         player, and action.
-         */
-        public String toString(){
-            return "[\n\tboard: "+ Arrays.toString(board) +",\n\tplayer: "+
-                lastPlayer +",\n\tmove: "+ move +"\n]";
-        }
-
-        /**
-         * @return A deep copy of this state.
-         */
-        public TicTacToeState clone(){
-            return new TicTacToeState(board.clone(), lastPlayer, move);
-        }
-
-        /**
-         * @return Returns true if the given tic-tac-toe state is terminal:
-         *      - four Xs or Os in a row (vertically, horizontally, or diagonally)
-         *      - four Xs or Os in a square
-         *      - four Xs or Os in the four corners
-         *      - all 16 spots are filled
-         */
-        public boolean isTerminal() {
-            boolean isFilled = true;
-            // Check if the board if filled.
-            for(int i = 0; i < board.length; i++){
-                if(board[i] == ' '){
-                    isFilled = false;
-                    break;
-                }
-            }
-            // True if the board is filled or there are four in a row, column, or diagonal, square, or corners.
-            return
-                // If we don't have four a win, but the whole board is full, then
-                // there's a draw.
-                isFilled || utility() != 0;
+        public AIvsAIBoard copy() {
+            AIvsAIBoard copy = new AIvsAIBoard();
+            copy.copyFrom(this);
+            copy.setEvaluator(getEvaluator());
+            return copy;
         }
 
-            
-        /**
-         * Finds the utility of a terminal state. This 1 if X has four in a row, column, diagonal, corner, or square,
-         * -1 if O has four, and 0 otherwise.
-         * 
-         * @return 1 if X wins, -1 if O wins, 0 if a draw.
-         */
-        public double utility() {
-            // Four in a row by row.
-            if(board[0] == board[1] && board[0] == board[2] && board[0] == board[3] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-            
-            if(board[4] == board[5] && board[4] == board[6] && board[4] == board[7] && board[4] != ' ')
-            return board[4] == 'X' ? 1 : -1;
-
-            if(board[8] == board[9] && board[8] == board[10] && board[8] == board[11] && board[8] != ' ')
-            return board[8] == 'X' ? 1 : -1;
-
-            if(board[12] == board[13] && board[12] == board[14] && board[12] == board[15] && board[12] != ' ')
-            return board[12] == 'X' ? 1 : -1;
-
-
-            // Four in a row by column.
-            if(board[0] == board[4] && board[0] == board[8] && board[0] == board[12] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-
-            if(board[1] == board[5] && board[1] == board[9] && board[1] == board[13] && board[1] != ' ')
-            return board[1] == 'X' ? 1 : -1;
-
-            if(board[2] == board[6] && board[2] == board[10] && board[2] == board[14] && board[2] != ' ')
-            return board[2] == 'X' ? 1 : -1;
-
-            if(board[3] == board[7] && board[3] == board[11] && board[3] == board[15] && board[3] != ' ')
-            return board[3] == 'X' ? 1 : -1;
-
-
-            // Four in a row by diagonal.
-            if(board[0] == board[5] && board[0] == board[10] && board[0] == board[15] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-
-            if(board[3] == board[6] && board[3] == board[9] && board[3] == board[12] && board[3] != ' ')
-            return board[3] == 'X' ? 1 : -1;
-
-            // Four in a square.
-            if(board[0] == board[1] && board[0] == board[4] && board[0] == board[5] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-
-            if(board[1] == board[2] && board[1] == board[5] && board[1] == board[6] && board[1] != ' ')
-            return board[1] == 'X' ? 1 : -1;
-
-            if(board[2] == board[3] && board[2] == board[6] && board[2] == board[7] && board[2] != ' ')
-            return board[2] == 'X' ? 1 : -1;
-
-            if(board[4] == board[5] && board[4] == board[8] && board[4] == board[9] && board[4] != ' ')
-            return board[4] == 'X' ? 1 : -1;
-
-            if(board[5] == board[6] && board[5] == board[9] && board[5] == board[10] && board[5] != ' ')
-            return board[5] == 'X' ? 1 : -1;
-
-            if(board[6] == board[7] && board[6] == board[10] && board[6] == board[11] && board[6] != ' ')
-            return board[6] == 'X' ? 1 : -1;
-
-            if(board[8] == board[9] && board[8] == board[12] && board[8] == board[13] && board[8] != ' ')
-            return board[8] == 'X' ? 1 : -1;
-
-            if(board[9] == board[10] && board[9] == board[13] && board[9] == board[14] && board[9] != ' ')
-            return board[9] == 'X' ? 1 : -1;
-
-            if(board[10] == board[11] && board[10] == board[14] && board[10] == board[15] && board[10] != ' ')
-            return board[10] == 'X' ? 1 : -1;
-
-
-            // Four corners.
-            if(board[0] == board[3] && board[0] == board[12] && board[0] == board[15] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-
-            // If nothing else, draw.
-            return 0;
-        }
         /**
          * Evaluates a non-terminal state. Each column that has three X's or three O's
          * and one open space yields a value of 1 (for X) or -1 (for O). This is
@@ -178,8 +37,12 @@ public class AIvsAI {
          * @return A positive return value favors X's chances of winning, negative
          * favors O's, an 0 is an expected draw.
          */
-        public double eval() { // This method was produced using github copilot
-            double total = 0;
+        public int eval() { // This method was produced using github copilot
+            if (getEvaluator() != null) {
+                return super.eval();
+            }
+            char[] board = spots;
+            int total = 0;
             // Two in a row by column.
             for (int i = 0; i < 4; i++) {
                 if (board[i] == board[i + 4] && board[i + 8] == ' ' || board[i] == board[i + 8] && board[i + 4] == ' '
@@ -223,132 +86,130 @@ public class AIvsAI {
 
             return total;
         }
-        /**
-         * Generates a list of successors for the current state. These are all
-         * possible moves of the next player into blank spaces, where the "next
-         * player" is whichever player isn't state.player.
-         * 
-         * @return A list of all possible successor of the given state for the next
-         *         player.
-         */
-        public ArrayList<TicTacToeState> successors() {
-            ArrayList<TicTacToeState> successorStates = new ArrayList<TicTacToeState>();
-            TicTacToeState successorState;
-            char nextPlayer = lastPlayer == 'X' ? 'O' : 'X';
-
-            for(int i = 0; i < board.length; i++){
-                if(board[i] == ' '){
-                    successorState = clone();
-                    successorState.makeMove(nextPlayer, i+1);
-                    successorStates.add(successorState);
-                }
-            }
-            
-            return successorStates;
-        }
 
         /**
-         * Determines if this is a "max" state, meaning a state for which Minimax
-         * should be maximizing over values of successors, meaning it's X's turn
-         * next.
-         * 
-         * @return True if the next player is X.
+         * Evaluates the children one at a time with this board's own eval(),
+         * unless an evaluator has been set.
          */
-        public boolean isMax() {
-            // If the last player is O, then X is now going and therefore we're in
-            // a max node.
-            return lastPlayer == 'O'; 
+        public void evalChildren(int[] moves, int count, int[] values) {
+            if (getEvaluator() != null) {
+                super.evalChildren(moves, count, values);
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                makeMove(moves[i]);
+                values[i] = isTerminal() ? utility() : eval();
+                unmakeMove(moves[i]);
+            }
         }
+    }
 
-        /**
-         * A helper function that simply wraps a move (extracted from the given 
-         * state) and the utility value of this terminal state.
-         * 
-         * @return state.move and utility wrapped up in an easy to use object.
-         */
-        public TicTacToeActionUtility getActionUtility() {
-            return new TicTacToeActionUtility(move, utility());
-        }
 
-        /**
-         * A helper function that simply wraps a move (extracted from the given 
-         * state) and the evaluation value for this state.
-         * 
-         * @return state.move and utility wrapped up in an easy to use object.
-         */
-        public TicTacToeActionUtility getActionEval() {
-            return new TicTacToeActionUtility(move, eval());
-        }
+    // TicTacToe data members.
+    AIvsAIBoard board;
+    int loggingDepth;
+    boolean playerOneAlphaBeta, playerTwoAlphaBeta;
+    int playerOneDepthLimit, playerTwoDepthLimit;
+    Scanner input;
+    // Each player keeps its own engine (and what it has learned) all game.
+    Minimax playerOne, playerTwo;
+    LineEvaluator evaluator;
+    int lineCount;
 
-        
-        /**
-         * A helper function that simply wraps a move (extracted from the given 
-         * state) and the evaluation value for this state.
-         * 
-         * @return state.move and utility wrapped up in an easy to use object.
-         */
-        public TicTacToeActionUtility getActionUtility(double utility) {
-            return new TicTacToeActionUtility(move, utility);
-        }
 
+    /**
+     * Initializes helpers for the game.
+     */
+    public AIvsAI(int loggingDepth, Profile playerOneProfile, Profile playerTwoProfile) {
+        input = new Scanner(System.in);
+        this.loggingDepth = loggingDepth;
+        // Profiles always search with alpha-beta.
+        this.playerOneAlphaBeta = true;
+        this.playerTwoAlphaBeta = true;
+        this.playerOneDepthLimit = playerOneProfile.maxDepth;
+        this.playerTwoDepthLimit = playerTwoProfile.maxDepth;
+        playerOne = new Minimax();
+        playerOne.setEngine(newEngine(playerOneAlphaBeta));
+        playerOne.setProfile(playerOneProfile);
+        playerTwo = new Minimax();
+        playerTwo.setEngine(newEngine(playerTwoAlphaBeta));
+        playerTwo.setProfile(playerTwoProfile);
+        System.out.println("Player one: " + playerOneProfile);
+        System.out.println("Player two: " + playerTwoProfile);
     }
 
     /**
-     * Serves as a wrapper for a tic-tac-toe move and the utility associated
-     * with it.
+     * Creates an engine that keeps a transposition table, move history and
+     * expected line from move to move, so each search starts where the
+     * player's last one left off.
+     * 
+     * @param useAlphaBeta True to prune with alpha-beta.
+     * @return The engine.
      */
-    public class TicTacToeActionUtility implements ActionUtility  {
-        public double utility;
-        public int move;
-
-        /**
-         * Initializes the action and utility.
-         * @param move The spot selected in the most recent move.
-         * @param utility The utility value associated with the move.
-         */
-        public TicTacToeActionUtility(int move, double utility){
-            this.move = move;
-            this.utility = utility;
-        }
-
-        /**
-         * @return The utility of this move.
-         */
-        public double getUtility() {
-            return utility;
-        }
+    private static SearchEngine newEngine(boolean useAlphaBeta) {
+        SearchEngine engine = new SearchEngine(useAlphaBeta);
+        engine.setTranspositionTable(new TranspositionTable(20));
+        engine.setHistory(true);
+        return engine;
+    }
 
-        /**
-         * @return A description of this move and utility.
-         */
-        public String toString(){
-            return "[\n\tmove: "+ move +",\n\tutility: "+ utility +"\n]";
-        }
+    /**
+     * Has both players keep what they prove in a cache file, and use what
+     * earlier games proved.
+     * 
+     * @param cache The cache to use.
+     */
+    public void setCache(PersistentCache cache) {
+        playerOne.getEngine().setPersistentCache(cache);
+        playerTwo.getEngine().setPersistentCache(cache);
     }
 
+    /**
+     * Has both players show their best few moves after each search, with
+     * their scores and the lines they expect after them.
+     * 
+     * @param lineCount How many moves to show; 0 or 1 to show none.
+     */
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+        playerOne.getEngine().setMultiPV(lineCount);
+        playerTwo.getEngine().setMultiPV(lineCount);
+    }
 
-    // TicTacToe data members.
-    TicTacToeState currentState;
-    int loggingDepth;
-    boolean playerOneAlphaBeta, playerTwoAlphaBeta;
-    int playerOneDepthLimit, playerTwoDepthLimit;
-    Scanner input;
-    Minimax minimax;
+    /**
+     * Has the players search selectively, reducing late quiet moves and
+     * skipping quiet moves near the horizon that can't reach alpha, so a
+     * game can pit a selective player against a full-width one.
+     * 
+     * @param reductions Which players reduce late moves, e.g. "1", "2" or "12".
+     * @param futility Which players prune futile moves, the same way.
+     */
+    public void setSelectiveSearch(String reductions, String futility) {
+        playerOne.getEngine().setLateMoveReductions(reductions.contains("1"));
+        playerTwo.getEngine().setLateMoveReductions(reductions.contains("2"));
+        playerOne.getEngine().setFutilityPruning(futility.contains("1"));
+        playerTwo.getEngine().setFutilityPruning(futility.contains("2"));
+    }
 
+    /**
+     * Sets how few open spots a board must have before the players solve it
+     * exactly rather than searching it to the depth limit.
+     * 
+     * @param endgameSpots The most open spots a board can have to be solved;
+     *                     0 to never solve one.
+     */
+    public void setEndgameSpots(int endgameSpots) {
+        playerOne.getEngine().setEndgameSpots(endgameSpots);
+        playerTwo.getEngine().setEndgameSpots(endgameSpots);
+    }
 
     /**
-     * Initializes helpers for the game.
+     * Has both players evaluate boards with tuned weights.
+     * 
+     * @param evaluator The evaluator to use, or null for the built-in one.
      */
-    public AIvsAI(int loggingDepth, boolean playerOneAlphaBeta, boolean playerTwoAlphaBeta, int playerOneDepthLimit, int playerTwoDepthLimit) {
-        input = new Scanner(System.in);
-        minimax = new Minimax();
-        this.loggingDepth = loggingDepth;
-        this.playerOneAlphaBeta = playerOneAlphaBeta;
-        this.playerTwoAlphaBeta = playerTwoAlphaBeta;
-        this.playerOneDepthLimit = playerOneDepthLimit;
-        this.playerTwoDepthLimit = playerTwoDepthLimit;
-        System.out.println("Player one: Depth limit: " + playerOneDepthLimit + " Alpha-beta: " + playerOneAlphaBeta);
-        System.out.println("Player two: Depth limit: " + playerTwoDepthLimit + " Alpha-beta: " + playerTwoAlphaBeta);
+    public void setEvaluator(LineEvaluator evaluator) {
+        this.evaluator = evaluator;
     }
 
     /**
@@ -356,26 +217,31 @@ public class AIvsAI {
      */
     public void run(){
         int playerOneMove, playerTwoMove;
-        currentState = new TicTacToeState("                ".toCharArray(), '?', 0);
+        board = new AIvsAIBoard();
+        board.setEvaluator(evaluator);
         System.out.println("Key: ");
         printBoard(new char[] {'1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F', 'G'});
         System.out.println();
-        printBoard(currentState.board);
+        printBoard(board.toCharArray());
 
         // Until the game is over.
         while(true){
             // Player one turn.
             System.out.println("\nPlayer one's turn:");
             Minimax.setAlphaBeta(playerOneAlphaBeta);
-            playerOneMove = ((TicTacToeActionUtility) minimax.value(currentState, playerOneDepthLimit, loggingDepth, "", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY)).move;
+            playerOneMove = playerOne.search(new SearchBoardState(board.copy()), playerOneDepthLimit, loggingDepth).getMove();
             System.out.println("States expanded: " + Minimax.getStateCount());
+            printLine(playerOne.getLine());
+            if (lineCount > 1) {
+                ExtremeTicTacToe.printLines(playerOne.getEngine().getLines());
+            }
             Minimax.resetStateCount();
-            currentState.makeMove('X', playerOneMove);
+            board.makeMove(playerOneMove - 1);
 
-            printBoard(currentState.board);
+            printBoard(board.toCharArray());
 
             // Check if player one won.
-            if(currentState.isTerminal()) {
+            if(board.isTerminal()) {
                 break;
             }
 
@@ -383,24 +249,28 @@ public class AIvsAI {
             // Player two turn.
             System.out.println("\nPlayer Two's turn:");
             Minimax.setAlphaBeta(playerTwoAlphaBeta);
-            playerTwoMove = ((TicTacToeActionUtility) minimax.value(currentState, playerTwoDepthLimit, loggingDepth, "", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY)).move;
+            playerTwoMove = playerTwo.search(new SearchBoardState(board.copy()), playerTwoDepthLimit, loggingDepth).getMove();
             System.out.println("States expanded: " + Minimax.getStateCount());
+            printLine(playerTwo.getLine());
+            if (lineCount > 1) {
+                ExtremeTicTacToe.printLines(playerTwo.getEngine().getLines());
+            }
             Minimax.resetStateCount();
-            currentState.makeMove('O', playerTwoMove);
+            board.makeMove(playerTwoMove - 1);
 
-            printBoard(currentState.board);
+            printBoard(board.toCharArray());
 
             // Check if player two won.
-            if(currentState.isTerminal()) {
+            if(board.isTerminal()) {
                 break;
             }
         }
 
-        System.out.println("Game over. Utility: "+ currentState.utility());
-        if(currentState.utility() == 0){
+        System.out.println("Game over. Utility: "+ (double) board.utility() / SearchBoard.WIN);
+        if(board.utility() == 0){
             System.out.println("Draw.");
         }
-        else if(currentState.utility() == 1){
+        else if(board.utility() > 0){
             System.out.println("Player one wins.");
         }
         else{
@@ -409,6 +279,23 @@ public class AIvsAI {
 
     }
 
+    /**
+     * Prints the line of play a player expects, if it knows one, with the
+     * spots labelled as in the key.
+     * 
+     * @param line The spots, starting at 1, starting with the move played.
+     */
+    public void printLine(int[] line) {
+        if (line.length == 0) {
+            return;
+        }
+        StringBuilder expected = new StringBuilder("Expected line:");
+        for (int spot : line) {
+            expected.append(' ').append(SearchResult.label(spot - 1));
+        }
+        System.out.println(expected);
+    }
+
     /**
      * Prints the board as a 4x4 table.
      * 
@@ -431,19 +318,38 @@ public class AIvsAI {
      * @param args Ignored.
      */
         public static void main(String[] args) {
-            String USAGE = "Usage: java AIvsAI [-h] [-a] [-d <depth>] [-l <loggingDepth>]\n" +
+            String USAGE = "Usage: java AIvsAI -1 <difficulty> -2 <difficulty> [-h] [-l <loggingDepth>] [-t <traceFile>] [-e <treeFile>] [-E <treeDepth>] [-f <profileFile>] [-w <weightsFile>] [-c <cacheFile>] [-k <count>] [-R <players>] [-F <players>] [-s <spots>]\n" +
                     "  -h: Display this help message.\n" +
-                    "  -1: <difficulty>: Player one difficulty. (beginner, intermediate, advanced)\n" +
-                    "  -2: <difficulty>: Player two difficulty. (beginner, intermediate, advanced)\n" +
-                    "  -l <loggingDepth>: Specify the logging depth. (optional)\n";
+                    "  -1 <difficulty>: Player one's profile (beginner, intermediate, advanced, or one from -f).\n" +
+                    "  -2 <difficulty>: Player two's profile, the same way. A profile sets the player's\n" +
+                    "                   depth limit and its time, node, thread and noise budgets.\n" +
+                    "  -l <loggingDepth>: Specify the logging depth. (optional)\n" +
+                    "  -t <traceFile>: Write a binary trace of each search (view it with TraceViewer).\n" +
+                    "  -e <treeFile>: Export each search tree (explore it with TreeExplorer).\n" +
+                    "  -E <treeDepth>: Only export the tree down to this ply.\n" +
+                    "  -f <profileFile>: Read the difficulties' time, node, thread and noise budgets from a file.\n" +
+                    "  -w <weightsFile>: Evaluate with weights tuned by EvalTuner.\n" +
+                    "  -c <cacheFile>: Keep what the players prove in a cache file, to reuse in later games.\n" +
+                    "  -k <count>: Show each player's <count> best moves, with scores and expected lines, after each search.\n" +
+                    "  -R <players>: Reduce late quiet moves for these players (1, 2 or 12).\n" +
+                    "  -F <players>: Skip futile quiet moves near the horizon for these players (1, 2 or 12).\n" +
+                    "  -s <spots>: Solve boards with this many open spots or fewer exactly (default 10; 0 for never).\n";
 
             int loggingDepth = 0;
-            boolean playerOneAlphaBeta = false;
-            boolean playerTwoAlphaBeta = false;
-            int playerOneDepthLimit = -1;
-            int playerTwoDepthLimit = -1;
-            String playerOneDifficulty;
-            String playerTwoDifficulty;
+            String traceFile = null;
+            String treeFile = null;
+            int treeDepth = -1;
+            String profileFile = null;
+            String weightsFile = null;
+            String cacheFile = null;
+            int lineCount = 0;
+            String reductions = "";
+            String futility = "";
+            int endgameSpots = -1;
+            String playerOneDifficulty = null;
+            String playerTwoDifficulty = null;
+            Profile playerOneProfile = null;
+            Profile playerTwoProfile = null;
 
             if (args.length > 0) {
                 if (args[0].equals("-h")) {
@@ -458,20 +364,6 @@ public class AIvsAI {
                     if (args[i].equals("-1")) {
                         if (i + 1 < args.length) {
                             playerOneDifficulty = args[i + 1];
-                            if (playerOneDifficulty.equals("beginner")) {
-                                playerOneDepthLimit = 5;
-                                playerOneAlphaBeta = true;
-                            } else if (playerOneDifficulty.equals("intermediate")) {
-                                playerOneDepthLimit = 8;
-                                playerOneAlphaBeta = true;
-                            } else if (playerOneDifficulty.equals("advanced")) {
-                                playerOneDepthLimit = 13;
-                                playerOneAlphaBeta = true;
-                            } else {
-                                System.out.println("Invalid player one difficulty value. Please choose either beginner, intermediate, or advanced.");
-                                System.out.println(USAGE);
-                                System.exit(0);
-                            }
                             foundPlayerOneDifficulty = true;
                         } else {
                             System.out.println("Invalid player one difficulty value. Please provide a difficulty level.");
@@ -482,20 +374,6 @@ public class AIvsAI {
                     if (args[i].equals("-2")) {
                         if (i + 1 < args.length) {
                             playerTwoDifficulty = args[i + 1];
-                            if (playerTwoDifficulty.equals("beginner")) {
-                                playerTwoDepthLimit = 5;
-                                playerTwoAlphaBeta = true;
-                            } else if (playerTwoDifficulty.equals("intermediate")) {
-                                playerTwoDepthLimit = 8;
-                                playerTwoAlphaBeta = true;
-                            } else if (playerTwoDifficulty.equals("advanced")) {
-                                playerTwoDepthLimit = 13;
-                                playerTwoAlphaBeta = true;
-                            } else {
-                                System.out.println("Invalid player two difficulty value. Please choose either beginner, intermediate, or advanced.");
-                                System.out.println(USAGE);
-                                System.exit(0);
-                            }
                             foundPlayerTwoDifficulty = true;
                         } else {
                             System.out.println("Invalid player two difficulty value. Please provide a difficulty level.");
@@ -503,6 +381,69 @@ public class AIvsAI {
                             System.exit(0);
                         }
                     }
+                    if (args[i].equals("-c")) {
+                        if (i + 1 < args.length) {
+                            cacheFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid cache file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-w")) {
+                        if (i + 1 < args.length) {
+                            weightsFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid weights file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-f")) {
+                        if (i + 1 < args.length) {
+                            profileFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid profile file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-k")) {
+                        if (i + 1 < args.length) {
+                            lineCount = Integer.parseInt(args[i + 1]);
+                        } else {
+                            System.out.println("Invalid move count value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-R")) {
+                        if (i + 1 < args.length) {
+                            reductions = args[i + 1];
+                        } else {
+                            System.out.println("Invalid reduction players value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-F")) {
+                        if (i + 1 < args.length) {
+                            futility = args[i + 1];
+                        } else {
+                            System.out.println("Invalid futility players value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-s")) {
+                        if (i + 1 < args.length) {
+                            endgameSpots = Integer.parseInt(args[i + 1]);
+                        } else {
+                            System.out.println("Invalid endgame spots value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
                     if (args[i].equals("-l")) {
                         if (i + 1 < args.length) {
                             loggingDepth = Integer.parseInt(args[i + 1]);
@@ -512,6 +453,33 @@ public class AIvsAI {
                             System.exit(0);
                         }
                     }
+                    if (args[i].equals("-t")) {
+                        if (i + 1 < args.length) {
+                            traceFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid trace file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-e")) {
+                        if (i + 1 < args.length) {
+                            treeFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid tree file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-E")) {
+                        if (i + 1 < args.length) {
+                            treeDepth = Integer.parseInt(args[i + 1]);
+                        } else {
+                            System.out.println("Invalid tree depth value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
                 }
 
                 if (!foundPlayerOneDifficulty || !foundPlayerTwoDifficulty) {
@@ -519,14 +487,114 @@ public class AIvsAI {
                     System.out.println(USAGE);
                     System.exit(0);
                 }
+
+                Map<String, Profile> profiles = null;
+                try {
+                    profiles = profileFile != null ? Profile.load(Paths.get(profileFile)) : Profile.defaults();
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Could not read profile file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                playerOneProfile = profiles.get(playerOneDifficulty);
+                if (playerOneProfile == null) {
+                    System.out.println("Invalid player one difficulty value. Please choose from "+ String.join(", ", profiles.keySet()) +".");
+                    System.out.println(USAGE);
+                    System.exit(0);
+                }
+                playerTwoProfile = profiles.get(playerTwoDifficulty);
+                if (playerTwoProfile == null) {
+                    System.out.println("Invalid player two difficulty value. Please choose from "+ String.join(", ", profiles.keySet()) +".");
+                    System.out.println(USAGE);
+                    System.exit(0);
+                }
             } else {
                 System.out.println("Please provide command line arguments.");
                 System.out.println(USAGE);
                 System.exit(0);
             }
 
-            AIvsAI aivsai = new AIvsAI(loggingDepth, playerOneAlphaBeta, playerTwoAlphaBeta, playerOneDepthLimit, playerTwoDepthLimit);
+            if (lineCount > 1 && (loggingDepth > 0 || traceFile != null || treeFile != null)) {
+                // Those searches don't go through the engines.
+                System.out.println("Best moves aren't shown while logging, tracing or exporting.");
+                lineCount = 0;
+            }
+            AIvsAI aivsai = new AIvsAI(loggingDepth, playerOneProfile, playerTwoProfile);
+            aivsai.setLineCount(lineCount);
+            aivsai.setSelectiveSearch(reductions, futility);
+            if (endgameSpots >= 0) {
+                aivsai.setEndgameSpots(endgameSpots);
+            }
+            if (weightsFile != null) {
+                LineEvaluator evaluator = ExtremeBoard.newEvaluator();
+                try {
+                    evaluator.load(Paths.get(weightsFile));
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Could not read weights file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                aivsai.setEvaluator(evaluator);
+            }
+            PersistentCache cache = null;
+            if (cacheFile != null) {
+                try {
+                    cache = new PersistentCache(Paths.get(cacheFile), ExtremeBoard.GEOMETRY, 20);
+                } catch (IOException e) {
+                    System.out.println("Could not open cache file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                if (!cache.isWritable()) {
+                    System.out.println("The cache file is in use; it won't be updated this game.");
+                }
+                aivsai.setCache(cache);
+            }
+            SearchTrace trace = null;
+            if (traceFile != null) {
+                try {
+                    trace = new SearchTrace(Paths.get(traceFile));
+                } catch (IOException e) {
+                    System.out.println("Could not open trace file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                Minimax.setTrace(trace);
+            }
+            SearchTreeWriter tree = null;
+            if (treeFile != null) {
+                try {
+                    tree = new SearchTreeWriter(Paths.get(treeFile), 16, treeDepth);
+                } catch (IOException e) {
+                    System.out.println("Could not open tree file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                Minimax.setTree(tree);
+            }
+
             aivsai.run();
+
+            if (trace != null) {
+                try {
+                    trace.close();
+                    System.out.println("Wrote "+ trace.getRecordCount() +" trace records to "+ traceFile);
+                } catch (IOException e) {
+                    System.out.println("Could not write trace file: "+ e.getMessage());
+                }
+            }
+            if (tree != null) {
+                try {
+                    tree.close();
+                    System.out.println("Wrote "+ tree.getRecordCount() +" tree records to "+ treeFile);
+                } catch (IOException e) {
+                    System.out.println("Could not write tree file: "+ e.getMessage());
+                }
+            }
+            if (cache != null) {
+                try {
+                    long stores = cache.getStoreCount();
+                    cache.close();
+                    System.out.println("Stored "+ stores +" results in "+ cacheFile);
+                } catch (IOException e) {
+                    System.out.println("Could not write cache file: "+ e.getMessage());
+                }
+            }
         }
     }
 
@@ -6,4 +6,5 @@
 public interface ActionUtility {
     public String toString();
     public double getUtility();
+    public int getMove();
 }
@@ -0,0 +1,307 @@
+// File:   Census.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Counts every position of ExtremeTicTacToe that can come up in a game.
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Enumerates ExtremeTicTacToe's positions breadth first from the empty
+ * board, one ply at a time, and reports for each ply how many distinct
+ * positions can come up in a game, how many of those are left once
+ * rotations and reflections are taken into account, and how many end the
+ * game, by who wins and how (row, column, diagonal, square or corners).
+ *
+ * Each ply's positions are expanded in parallel. A position is seen before
+ * if its bit is set in a bitset indexed by the board read as a base-3
+ * number (3^16 bits, 5.4 MB, kept off the heap), so no position is counted
+ * or expanded twice however many ways it's reached. Positions waiting to
+ * be expanded are packed into ints, X's spots in the low 16 bits and O's in
+ * the high 16. A position counts as unique under symmetry if its index is
+ * the smallest of its 8 rotations and reflections, so each class of
+ * symmetric positions is counted once.
+ */
+public class Census {
+    private static final int CELLS = 16;
+    private static final int POSITIONS = 43046721; // 3^16
+
+    // Win types, and the type of each of ExtremeBoard.GEOMETRY's lines.
+    private static final String[] WIN_TYPE_NAMES = {"row", "column", "diagonal", "square", "corners"};
+    private static final int[] WIN_TYPES = {
+        0, 0, 0, 0,
+        1, 1, 1, 1,
+        2, 2,
+        3, 3, 3, 3, 3, 3, 3, 3, 3,
+        4
+    };
+    private static final long[] LINES = ExtremeBoard.GEOMETRY.lines;
+
+    // What each byte of a mask adds to the base-3 index, for the low and
+    // high byte.
+    private static final int[][] TERNARY = new int[2][256];
+    // The masks each byte of a mask turns into under the 8 rotations and
+    // reflections, the identity first.
+    private static final int[][][] SYMMETRIES = new int[8][2][256];
+    static {
+        int[] powers = new int[CELLS];
+        powers[0] = 1;
+        for (int i = 1; i < CELLS; i++) {
+            powers[i] = powers[i - 1] * 3;
+        }
+        for (int half = 0; half < 2; half++) {
+            for (int bits = 0; bits < 256; bits++) {
+                for (int bit = 0; bit < 8; bit++) {
+                    if ((bits >> bit & 1) == 0) {
+                        continue;
+                    }
+                    int spot = half * 8 + bit;
+                    TERNARY[half][bits] += powers[spot];
+                    int row = spot / 4;
+                    int column = spot % 4;
+                    int[] images = {
+                        row * 4 + column,
+                        column * 4 + 3 - row,
+                        (3 - row) * 4 + 3 - column,
+                        (3 - column) * 4 + row,
+                        row * 4 + 3 - column,
+                        (3 - row) * 4 + column,
+                        column * 4 + row,
+                        (3 - column) * 4 + 3 - row
+                    };
+                    for (int symmetry = 0; symmetry < 8; symmetry++) {
+                        SYMMETRIES[symmetry][half][bits] |= 1 << images[symmetry];
+                    }
+                }
+            }
+        }
+    }
+
+    private static final VarHandle WORDS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // The positions seen so far, one bit each, by index().
+    private final ByteBuffer seen = ByteBuffer.allocateDirect((POSITIONS + 63) / 64 * 8);
+
+    /**
+     * What one ply holds. Each worker keeps its own and they're added up
+     * once the ply is done.
+     */
+    private static class Tally {
+        long positions;
+        long unique;
+        long xWins;
+        long oWins;
+        long draws;
+        final long[] winTypes = new long[WIN_TYPE_NAMES.length];
+
+        void add(Tally other) {
+            positions += other.positions;
+            unique += other.unique;
+            xWins += other.xWins;
+            oWins += other.oWins;
+            draws += other.draws;
+            for (int i = 0; i < winTypes.length; i++) {
+                winTypes[i] += other.winTypes[i];
+            }
+        }
+    }
+
+    /**
+     * @return The position as a base-3 number, spot 0 the lowest digit: 0
+     *         for an open spot, 1 for X, 2 for O.
+     */
+    private static int index(int x, int o) {
+        return TERNARY[0][x & 0xFF] + TERNARY[1][x >>> 8] +
+            2 * (TERNARY[0][o & 0xFF] + TERNARY[1][o >>> 8]);
+    }
+
+    /**
+     * @return The mask turned by one of the rotations and reflections.
+     */
+    private static int transform(int symmetry, int mask) {
+        return SYMMETRIES[symmetry][0][mask & 0xFF] | SYMMETRIES[symmetry][1][mask >>> 8];
+    }
+
+    /**
+     * @return True if no rotation or reflection of the position has a
+     *         smaller index.
+     */
+    private static boolean isCanonical(int x, int o, int index) {
+        for (int symmetry = 1; symmetry < 8; symmetry++) {
+            if (index(transform(symmetry, x), transform(symmetry, o)) < index) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks a position as seen.
+     *
+     * @return True if it hadn't been seen before.
+     */
+    private boolean markSeen(int index) {
+        long bit = 1L << index;
+        long old = (long) WORDS.getAndBitwiseOr(seen, (index >>> 6) * 8, bit);
+        return (old & bit) == 0;
+    }
+
+    /**
+     * Counts a position new to the census.
+     *
+     * @param mover The spots of the player who just moved.
+     * @param xMoved True if that player is X.
+     * @return True if the game goes on from the position.
+     */
+    private static boolean count(Tally tally, int x, int o, int index, int mover, boolean xMoved) {
+        tally.positions++;
+        if (isCanonical(x, o, index)) {
+            tally.unique++;
+        }
+        boolean won = false;
+        for (int i = 0; i < LINES.length; i++) {
+            if ((mover & LINES[i]) == LINES[i]) {
+                // A move that completes two lines at once counts for both.
+                if (!won) {
+                    won = true;
+                    if (xMoved) {
+                        tally.xWins++;
+                    } else {
+                        tally.oWins++;
+                    }
+                }
+                tally.winTypes[WIN_TYPES[i]]++;
+            }
+        }
+        if (won) {
+            return false;
+        }
+        if (Integer.bitCount(x | o) == CELLS) {
+            tally.draws++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Expands one ply's positions.
+     *
+     * @param frontier The positions of the ply, packed.
+     * @param ply The ply, so the number of marks on each position.
+     * @param tally Where to count the next ply's positions.
+     * @return The next ply's positions that aren't over, packed.
+     */
+    private int[] expand(int[] frontier, int ply, Tally tally) {
+        int workers = Math.max(1, Math.min(frontier.length / 1024, 64 * Runtime.getRuntime().availableProcessors()));
+        int[][] parts = new int[workers][];
+        Tally[] tallies = new Tally[workers];
+        boolean xToMove = ply % 2 == 0;
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            Tally own = new Tally();
+            int[] next = new int[1024];
+            int count = 0;
+            int from = (int) ((long) frontier.length * worker / workers);
+            int to = (int) ((long) frontier.length * (worker + 1) / workers);
+            for (int i = from; i < to; i++) {
+                int x = frontier[i] & 0xFFFF;
+                int o = frontier[i] >>> 16;
+                for (int open = ~(x | o) & 0xFFFF; open != 0; open &= open - 1) {
+                    int spot = open & -open;
+                    int childX = xToMove ? x | spot : x;
+                    int childO = xToMove ? o : o | spot;
+                    int index = index(childX, childO);
+                    if (!markSeen(index)) {
+                        continue;
+                    }
+                    if (count(own, childX, childO, index, xToMove ? childX : childO, xToMove)) {
+                        if (count == next.length) {
+                            next = Arrays.copyOf(next, count * 2);
+                        }
+                        next[count++] = childX | childO << 16;
+                    }
+                }
+            }
+            parts[worker] = Arrays.copyOf(next, count);
+            tallies[worker] = own;
+        });
+
+        int total = 0;
+        for (int worker = 0; worker < workers; worker++) {
+            total += parts[worker].length;
+            tally.add(tallies[worker]);
+        }
+        int[] next = new int[total];
+        int at = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, next, at, part.length);
+            at += part.length;
+        }
+        return next;
+    }
+
+    /**
+     * Takes the census and prints it.
+     */
+    public void run() {
+        long start = System.nanoTime();
+        Tally[] plies = new Tally[CELLS + 1];
+        plies[0] = new Tally();
+        int[] frontier = {0};
+        markSeen(0);
+        count(plies[0], 0, 0, 0, 0, false);
+        for (int ply = 0; ply < CELLS; ply++) {
+            plies[ply + 1] = new Tally();
+            frontier = expand(frontier, ply, plies[ply + 1]);
+        }
+        long millis = (System.nanoTime() - start) / 1000000;
+
+        System.out.printf("%4s %12s %12s %10s %10s %10s%n", "Ply", "Positions", "Unique", "X wins", "O wins", "Draws");
+        Tally total = new Tally();
+        for (int ply = 0; ply <= CELLS; ply++) {
+            Tally tally = plies[ply];
+            System.out.printf("%4d %,12d %,12d %,10d %,10d %,10d%n", ply, tally.positions, tally.unique,
+                tally.xWins, tally.oWins, tally.draws);
+            total.add(tally);
+        }
+        System.out.printf("%4s %,12d %,12d %,10d %,10d %,10d%n", "All", total.positions, total.unique,
+            total.xWins, total.oWins, total.draws);
+
+        System.out.println();
+        System.out.printf("%4s", "Ply");
+        for (String name : WIN_TYPE_NAMES) {
+            System.out.printf(" %10s", name);
+        }
+        System.out.println();
+        for (int ply = 0; ply <= CELLS; ply++) {
+            if (plies[ply].xWins + plies[ply].oWins == 0) {
+                continue;
+            }
+            System.out.printf("%4d", ply);
+            for (long wins : plies[ply].winTypes) {
+                System.out.printf(" %,10d", wins);
+            }
+            System.out.println();
+        }
+        System.out.println("(A move that completes two lines at once counts for both.)");
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println();
+        System.out.println("Took "+ millis +" ms on "+ runtime.availableProcessors() +" cores; "+
+            seen.capacity() / 1024 +" KB off heap, "+
+            (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) +" MB of heap in use.");
+    }
+
+    /**
+     * Takes a census of ExtremeTicTacToe.
+     *
+     * @param args Ignored.
+     */
+    public static void main(String[] args) {
+        new Census().run();
+    }
+}
@@ -0,0 +1,133 @@
+// File:   EndgameSolver.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Solves nearly full LineBoards exactly as a win, loss or draw.
+
+import java.util.Arrays;
+
+/**
+ * An exact solver for positions with few open spots. It works straight on
+ * the two players' bit masks rather than through SearchBoard, only tells
+ * wins, draws and losses apart, and finds which with at most two null
+ * window searches (can the player to move win? if not, can they draw?).
+ * Results are kept in a small cache of its own, which is reused between
+ * solves on the same game.
+ */
+public class EndgameSolver {
+    private static final int WIN = 1, DRAW = 0, LOSS = -1;
+    // Cache entry bounds.
+    private static final byte EXACT = 0, LOWER = 1, UPPER = 2;
+
+    private final int cacheMask;
+    private final long[] cacheKeys;
+    private final byte[] cacheValues;
+    private final byte[] cacheBounds;
+    private LineBoard.Geometry geometry;
+    private long nodeCount;
+
+    /**
+     * @param cacheBits The cache holds 2^cacheBits positions.
+     */
+    public EndgameSolver(int cacheBits) {
+        cacheMask = (1 << cacheBits) - 1;
+        cacheKeys = new long[1 << cacheBits];
+        cacheValues = new byte[1 << cacheBits];
+        cacheBounds = new byte[1 << cacheBits];
+    }
+
+    /**
+     * @return The number of positions the solver has visited.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Solves a board.
+     *
+     * @param board A non-terminal board.
+     * @return SearchBoard.WIN if the player to move wins with best play,
+     *         -SearchBoard.WIN if they lose, and 0 for a draw.
+     */
+    public int solve(LineBoard board) {
+        if (geometry != board.getGeometry()) {
+            // The cache only holds positions of one game.
+            geometry = board.getGeometry();
+            Arrays.fill(cacheKeys, 0);
+        }
+        long mine = board.playerMask(board.isMax() ? 'X' : 'O');
+        long theirs = board.playerMask(board.isMax() ? 'O' : 'X');
+        long open = ~(mine | theirs) & geometry.full;
+
+        if (search(mine, theirs, open, DRAW, WIN) >= WIN) {
+            return SearchBoard.WIN;
+        } else if (search(mine, theirs, open, LOSS, DRAW) >= DRAW) {
+            return 0;
+        }
+        return -SearchBoard.WIN;
+    }
+
+    /**
+     * Alpha-beta over win, draw and loss, from the point of view of the
+     * player to move.
+     */
+    private int search(long mine, long theirs, long open, int alpha, int beta) {
+        nodeCount++;
+
+        if (LineBoard.winningSpots(geometry, mine, theirs) != 0) {
+            return WIN;
+        }
+        long threats = LineBoard.winningSpots(geometry, theirs, mine);
+        if ((threats & (threats - 1)) != 0) {
+            return LOSS;
+        }
+        if (threats == 0 && LineBoard.forkSpots(geometry, mine, theirs) != 0) {
+            return WIN;
+        }
+
+        long key = hash(mine, theirs);
+        int slot = (int) key & cacheMask;
+        if (cacheKeys[slot] == key) {
+            int value = cacheValues[slot];
+            byte bound = cacheBounds[slot];
+            if (bound == EXACT || bound == LOWER && value >= beta || bound == UPPER && value <= alpha) {
+                return value;
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = LOSS;
+        long moves = threats != 0 ? threats : open;
+        while (moves != 0) {
+            long move = moves & -moves;
+            moves &= moves - 1;
+            // The move can't win (there were no winning spots), so a move
+            // that fills the board draws.
+            int value = open == move ? DRAW : -search(theirs, mine | move, open & ~move, -beta, -alpha);
+            if (value > best) {
+                best = value;
+                if (best >= beta) {
+                    break;
+                }
+                alpha = Math.max(alpha, best);
+            }
+        }
+
+        cacheKeys[slot] = key;
+        cacheValues[slot] = (byte) best;
+        cacheBounds[slot] = best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT;
+        return best;
+    }
+
+    /**
+     * Mixes the two masks into a cache key; never 0 for a position with a
+     * mark on it, so 0 can mark an empty slot.
+     */
+    private static long hash(long mine, long theirs) {
+        long h = mine * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(theirs * 0xC2B2AE3D27D4EB4FL, 31);
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 32;
+        return h == 0 ? 1 : h;
+    }
+}
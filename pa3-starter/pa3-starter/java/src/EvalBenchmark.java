@@ -0,0 +1,198 @@
+// File:   EvalBenchmark.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Measures evaluating children one at a time against in batches.
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the two ways the engine can evaluate the children of a board at
+ * the depth limit: making each move and calling eval(), or one call to
+ * evalChildren(). It times both on random positions, checks they agree,
+ * and then times whole searches with batch evaluation off and on: fixed
+ * depth searches with the endgame solver off, which end in evaluations, and
+ * searches within a profile's budget as the games make them.
+ */
+public class EvalBenchmark {
+    /**
+     * @return Random non-terminal positions, from two to maxPlies moves in.
+     */
+    private static ExtremeBoard[] positions(int count, int maxPlies, LineEvaluator evaluator, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ExtremeBoard[] boards = new ExtremeBoard[count];
+        int[] moves = new int[16];
+        for (int i = 0; i < count; i++) {
+            ExtremeBoard board;
+            do {
+                board = new ExtremeBoard();
+                board.setEvaluator(evaluator);
+                int plies = random.nextInt(2, maxPlies + 1);
+                for (int ply = 0; ply < plies && !board.isTerminal(); ply++) {
+                    board.makeMove(moves[random.nextInt(board.generateMoves(moves))]);
+                }
+            } while (board.isTerminal());
+            boards[i] = board;
+        }
+        return boards;
+    }
+
+    /**
+     * Evaluates every child of every position, one child at a time or in
+     * batches.
+     *
+     * @return A checksum of the values, so the work can't be skipped.
+     */
+    private static long evalAll(ExtremeBoard[] boards, boolean batch, int[] moves, int[] values) {
+        long sum = 0;
+        for (ExtremeBoard board : boards) {
+            int count = board.generateMoves(moves);
+            if (batch) {
+                board.evalChildren(moves, count, values);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    board.makeMove(moves[i]);
+                    values[i] = board.eval();
+                    board.unmakeMove(moves[i]);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                sum = sum * 31 + values[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args See USAGE.
+     */
+    public static void main(String[] args) {
+        String USAGE = "Usage: java EvalBenchmark [-h] [-n <positions>] [-d <depth>] [-p <profile>] [-w <weightsFile>]\n" +
+                "  -h: Display this help message.\n" +
+                "  -n <positions>: Random positions to evaluate the children of. (default: 100000)\n" +
+                "  -d <depth>: Depth of the fixed depth searches to time. (default: 6)\n" +
+                "  -p <profile>: Profile of the budgeted searches to time. (default: intermediate)\n" +
+                "  -w <weightsFile>: Use tuned weights instead of the built-in evaluation.\n";
+
+        int count = 100000;
+        int depth = 6;
+        String profileName = "intermediate";
+        String weightsFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-h")) {
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for "+ args[i] +".");
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            String value = args[++i];
+            try {
+                switch (args[i - 1]) {
+                    case "-n": count = Integer.parseInt(value); break;
+                    case "-d": depth = Integer.parseInt(value); break;
+                    case "-p": profileName = value; break;
+                    case "-w": weightsFile = value; break;
+                    default:
+                        System.out.println("Unknown option "+ args[i - 1] +".");
+                        System.out.println(USAGE);
+                        System.exit(0);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid value for "+ args[i - 1] +": "+ value);
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+        }
+
+        Map<String, Profile> profiles = Profile.defaults();
+        Profile profile = profiles.get(profileName);
+        if (profile == null) {
+            System.out.println("Invalid profile. Please choose from "+ String.join(", ", profiles.keySet()) +".");
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+
+        LineEvaluator evaluator = null;
+        if (weightsFile != null) {
+            evaluator = ExtremeBoard.newEvaluator();
+            try {
+                evaluator.load(Paths.get(weightsFile));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Could not read weights: "+ e.getMessage());
+                System.exit(0);
+            }
+        }
+
+        ExtremeBoard[] boards = positions(count, 13, evaluator, 460);
+        int[] moves = new int[16];
+        int[] values = new int[16];
+        long[] sums = new long[2];
+        for (int round = 0; round < 5; round++) {
+            for (int batch = 0; batch < 2; batch++) {
+                long start = System.nanoTime();
+                sums[batch] = evalAll(boards, batch == 1, moves, values);
+                if (round == 4) {
+                    long nanos = System.nanoTime() - start;
+                    System.out.println((batch == 1 ? "Batched:     " : "One by one:  ") +
+                        count * 1000000000L / nanos +" positions/s");
+                }
+            }
+        }
+        if (sums[0] != sums[1]) {
+            System.out.println("The batched values differ from eval()'s!");
+            System.exit(1);
+        }
+
+        // Whole searches from the same openings, with the endgame solver off
+        // so the searches end in evaluations rather than solved endgames.
+        ExtremeBoard[] openings = positions(20, 4, evaluator, 461);
+        for (int round = 0; round < 2; round++) {
+            for (int batch = 0; batch < 2; batch++) {
+                SearchEngine engine = new SearchEngine(true);
+                engine.setBatchEval(batch == 1);
+                engine.setEndgameSpots(0);
+                long start = System.nanoTime();
+                long valueSum = 0;
+                for (ExtremeBoard opening : openings) {
+                    valueSum += engine.search(opening.copy(), depth).score;
+                }
+                if (round == 1) {
+                    System.out.println((batch == 1 ? "Batched:     " : "One by one:  ") +"depth "+ depth +
+                        " searches took "+ (System.nanoTime() - start) / 1000000 +" ms, "+
+                        engine.getStateCount() +" states, value sum "+ valueSum);
+                }
+            }
+        }
+
+        // The same openings searched the way the games search them: within
+        // the profile's budget, with the endgame solver and an engine kept
+        // from search to search. Within a time budget, faster evaluation
+        // shows up as more states and deeper searches, not less time.
+        for (int round = 0; round < 2; round++) {
+            for (int batch = 0; batch < 2; batch++) {
+                SearchEngine engine = new SearchEngine(true);
+                engine.setTranspositionTable(new TranspositionTable(20));
+                engine.setHistory(true);
+                engine.setBatchEval(batch == 1);
+                long start = System.nanoTime();
+                long depthSum = 0;
+                for (ExtremeBoard opening : openings) {
+                    depthSum += engine.search(opening.copy(), profile).depth;
+                }
+                if (round == 1) {
+                    System.out.printf("%s%s searches took %d ms, %d states, average depth %.2f%n",
+                        batch == 1 ? "Batched:     " : "One by one:  ", profile.name,
+                        (System.nanoTime() - start) / 1000000, engine.getStateCount(),
+                        (double) depthSum / openings.length);
+                }
+            }
+        }
+    }
+}
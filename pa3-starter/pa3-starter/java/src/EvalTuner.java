@@ -0,0 +1,337 @@
+// File:   EvalTuner.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Tunes the ExtremeTicTacToe line weights from self-play positions.
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Tunes the weights of ExtremeBoard's LineEvaluator the way Texel tuning
+ * does: it collects positions from fast self-play games, labels each with
+ * how the game turned out (or, in solve mode, with its exact result), and
+ * then adjusts the weights one at a time, keeping every change that makes
+ * sigmoid(K * eval) a better predictor of the labels. Games and the error
+ * sums run in parallel on all cores.
+ *
+ * The weights are written to a file the games can load with -w.
+ */
+public class EvalTuner {
+    // The positions, as X's and O's masks, and their labels: the chance X
+    // wins (1 for a win, 0.5 for a draw, 0 for a loss).
+    private long[] xs = new long[0], os = new long[0];
+    private double[] labels = new double[0];
+    private int count;
+
+    /**
+     * Plays self-play games in parallel and keeps their positions.
+     *
+     * @param games How many games to play.
+     * @param depth How deep the players search.
+     * @param solveSpots Label positions with this many open spots or fewer by
+     *                   solving them, and drop the rest; 0 to label every
+     *                   position with the game's result instead.
+     * @param evaluator The evaluator the players use, or null for eval()'s own.
+     * @param seed Seed for the random moves that vary the games.
+     */
+    public void generate(int games, int depth, int solveSpots, LineEvaluator evaluator, long seed) {
+        int cells = ExtremeBoard.GEOMETRY.cells;
+        long[][] gameXs = new long[games][];
+        long[][] gameOs = new long[games][];
+        double[][] gameLabels = new double[games][];
+        ThreadLocal<EndgameSolver> solvers = ThreadLocal.withInitial(() -> new EndgameSolver(16));
+
+        IntStream.range(0, games).parallel().forEach(game -> {
+            SplittableRandom random = new SplittableRandom(seed + game);
+            SearchEngine engine = new SearchEngine(true);
+            ExtremeBoard board = new ExtremeBoard();
+            board.setEvaluator(evaluator);
+            long[] x = new long[cells], o = new long[cells];
+            double[] label = new double[cells];
+            int kept = 0;
+            int[] moves = new int[cells];
+            int openingMoves = 2 + random.nextInt(3);
+
+            for (int ply = 0; !board.isTerminal(); ply++) {
+                int move;
+                if (ply < openingMoves || random.nextInt(10) == 0) {
+                    move = moves[random.nextInt(board.generateMoves(moves))];
+                } else {
+                    move = engine.search(board, depth).move;
+                }
+                board.makeMove(move);
+
+                int open = cells - ply - 1;
+                if (!board.isTerminal() && (solveSpots == 0 || open <= solveSpots)) {
+                    x[kept] = board.playerMask('X');
+                    o[kept] = board.playerMask('O');
+                    if (solveSpots > 0) {
+                        int value = solvers.get().solve(board);
+                        label[kept] = chance(board.isMax() ? value : -value);
+                    }
+                    kept++;
+                }
+            }
+            if (solveSpots == 0) {
+                Arrays.fill(label, 0, kept, chance(board.utility()));
+            }
+            gameXs[game] = Arrays.copyOf(x, kept);
+            gameOs[game] = Arrays.copyOf(o, kept);
+            gameLabels[game] = Arrays.copyOf(label, kept);
+        });
+
+        int total = count;
+        for (int game = 0; game < games; game++) {
+            total += gameXs[game].length;
+        }
+        xs = Arrays.copyOf(xs, total);
+        os = Arrays.copyOf(os, total);
+        labels = Arrays.copyOf(labels, total);
+        for (int game = 0; game < games; game++) {
+            int length = gameXs[game].length;
+            System.arraycopy(gameXs[game], 0, xs, count, length);
+            System.arraycopy(gameOs[game], 0, os, count, length);
+            System.arraycopy(gameLabels[game], 0, labels, count, length);
+            count += length;
+        }
+    }
+
+    /**
+     * @param value A value from X's point of view: WIN, 0 or -WIN.
+     * @return The chance X wins: 1, 0.5 or 0.
+     */
+    private static double chance(int value) {
+        return value > 0 ? 1 : value < 0 ? 0 : 0.5;
+    }
+
+    /**
+     * @return The number of positions collected.
+     */
+    public int getPositionCount() {
+        return count;
+    }
+
+    /**
+     * Finds how badly an evaluator predicts the labels.
+     *
+     * @param evaluator The evaluator.
+     * @param k Scales evaluations into the sigmoid.
+     * @return The mean squared difference between the labels and
+     *         sigmoid(k * eval).
+     */
+    public double error(LineEvaluator evaluator, double k) {
+        double sum = IntStream.range(0, count).parallel().mapToDouble(i -> {
+            double predicted = 1 / (1 + Math.exp(-k * evaluator.eval(xs[i], os[i])));
+            double difference = labels[i] - predicted;
+            return difference * difference;
+        }).sum();
+        return sum / count;
+    }
+
+    /**
+     * Finds the scale that makes an evaluator's predictions best.
+     *
+     * @param evaluator The evaluator.
+     * @return The best k for error().
+     */
+    public double fitK(LineEvaluator evaluator) {
+        double low = 0.0001, high = 1;
+        // Ternary search on a log scale; the error has a single minimum in k.
+        for (int i = 0; i < 60; i++) {
+            double a = low * Math.pow(high / low, 1.0 / 3);
+            double b = low * Math.pow(high / low, 2.0 / 3);
+            if (error(evaluator, a) < error(evaluator, b)) {
+                high = b;
+            } else {
+                low = a;
+            }
+        }
+        return Math.sqrt(low * high);
+    }
+
+    /**
+     * Tunes an evaluator's weights by local search: each weight in turn is
+     * nudged up, or else down, and the nudge is kept if it lowers the
+     * error. Passes repeat until none helps.
+     *
+     * @param evaluator The evaluator to tune; its weights are changed.
+     * @param k The scale from fitK().
+     * @param maxPasses The most passes to make.
+     * @return The final error.
+     */
+    public double tune(LineEvaluator evaluator, double k, int maxPasses) {
+        double best = error(evaluator, k);
+        for (int pass = 1; pass <= maxPasses; pass++) {
+            boolean improved = false;
+            for (int kind = 0; kind < evaluator.getKindCount(); kind++) {
+                for (int marks = 1; marks <= evaluator.getMaxMarks(); marks++) {
+                    int weight = evaluator.getWeight(kind, marks);
+                    for (int step : new int[] {1, -1}) {
+                        evaluator.setWeight(kind, marks, weight + step);
+                        double error = error(evaluator, k);
+                        if (error < best) {
+                            best = error;
+                            improved = true;
+                            break;
+                        }
+                        evaluator.setWeight(kind, marks, weight);
+                    }
+                }
+            }
+            System.out.println("Pass "+ pass +": error "+ best);
+            if (!improved) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays two evaluators against each other, each taking X in half the
+     * games.
+     *
+     * @param tuned The first evaluator.
+     * @param original The second, or null for eval()'s own.
+     * @param games How many games to play.
+     * @param depth How deep both players search.
+     * @return The first evaluator's wins, draws and losses.
+     */
+    public static int[] match(LineEvaluator tuned, LineEvaluator original, int games, int depth) {
+        AtomicInteger wins = new AtomicInteger(), draws = new AtomicInteger(), losses = new AtomicInteger();
+        IntStream.range(0, games).parallel().forEach(game -> {
+            SplittableRandom random = new SplittableRandom(game);
+            ExtremeBoard tunedBoard = new ExtremeBoard();
+            tunedBoard.setEvaluator(tuned);
+            ExtremeBoard originalBoard = new ExtremeBoard();
+            originalBoard.setEvaluator(original);
+            SearchEngine tunedEngine = new SearchEngine(true);
+            SearchEngine originalEngine = new SearchEngine(true);
+            boolean tunedIsX = game % 2 == 0;
+
+            // A couple of random moves so the games differ.
+            int[] moves = new int[16];
+            for (int i = 0; i < 2; i++) {
+                int move = moves[random.nextInt(tunedBoard.generateMoves(moves))];
+                tunedBoard.makeMove(move);
+                originalBoard.makeMove(move);
+            }
+            while (!tunedBoard.isTerminal()) {
+                boolean tunedToMove = tunedBoard.isMax() == tunedIsX;
+                int move = tunedToMove ? tunedEngine.search(tunedBoard, depth).move
+                    : originalEngine.search(originalBoard, depth).move;
+                tunedBoard.makeMove(move);
+                originalBoard.makeMove(move);
+            }
+            int result = tunedIsX ? tunedBoard.utility() : -tunedBoard.utility();
+            (result > 0 ? wins : result < 0 ? losses : draws).incrementAndGet();
+        });
+        return new int[] {wins.get(), draws.get(), losses.get()};
+    }
+
+    /**
+     * Tunes the weights and writes them out.
+     * @param args See USAGE.
+     */
+    public static void main(String[] args) {
+        String USAGE = "Usage: java EvalTuner [-h] [-g <games>] [-d <depth>] [-s <solveSpots>] [-n <passes>] [-w <weightsFile>] [-m <matchGames>] -o <outputFile>\n" +
+                "  -h: Display this help message.\n" +
+                "  -g <games>: Self-play games to collect positions from. (default: 2000)\n" +
+                "  -d <depth>: Search depth of the self-play games. (default: 2)\n" +
+                "  -s <solveSpots>: Label positions with this many open spots or fewer by solving them,\n" +
+                "                   instead of with the game's result. (default: 0, off)\n" +
+                "  -n <passes>: Most tuning passes to make. (default: 50)\n" +
+                "  -w <weightsFile>: Weights to start from. (default: marks squared)\n" +
+                "  -m <matchGames>: Afterwards, play this many games of the tuned weights against\n" +
+                "                   the built-in evaluation. (default: 0)\n" +
+                "  -o <outputFile>: Where to write the tuned weights.\n";
+
+        int games = 2000;
+        int depth = 2;
+        int solveSpots = 0;
+        int passes = 50;
+        int matchGames = 0;
+        String weightsFile = null;
+        String outputFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-h")) {
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for "+ args[i] +".");
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            String value = args[++i];
+            try {
+                switch (args[i - 1]) {
+                    case "-g": games = Integer.parseInt(value); break;
+                    case "-d": depth = Integer.parseInt(value); break;
+                    case "-s": solveSpots = Integer.parseInt(value); break;
+                    case "-n": passes = Integer.parseInt(value); break;
+                    case "-m": matchGames = Integer.parseInt(value); break;
+                    case "-w": weightsFile = value; break;
+                    case "-o": outputFile = value; break;
+                    default:
+                        System.out.println("Unknown option "+ args[i - 1] +".");
+                        System.out.println(USAGE);
+                        System.exit(0);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid value for "+ args[i - 1] +": "+ value);
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+        }
+        if (outputFile == null) {
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+
+        LineEvaluator evaluator = ExtremeBoard.newEvaluator();
+        if (weightsFile != null) {
+            try {
+                evaluator.load(Paths.get(weightsFile));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Could not read weights: "+ e.getMessage());
+                System.exit(0);
+            }
+        }
+
+        EvalTuner tuner = new EvalTuner();
+        long start = System.nanoTime();
+        tuner.generate(games, depth, solveSpots, weightsFile != null ? evaluator : null, 460);
+        System.out.println("Positions: "+ tuner.getPositionCount() +" from "+ games +" games in "+
+            (System.nanoTime() - start) / 1000000 +" ms");
+        if (tuner.getPositionCount() == 0) {
+            // The error is an average over the positions; with none it's NaN,
+            // and tuning would write the weights back unchanged.
+            System.out.println("No positions to tune on; play more games (-g), or with -s solve positions with more open spots.");
+            System.exit(0);
+        }
+
+        double k = tuner.fitK(evaluator);
+        System.out.println("K: "+ k +", starting error: "+ tuner.error(evaluator, k));
+        double error = tuner.tune(evaluator, k, passes);
+
+        try {
+            evaluator.save(Paths.get(outputFile), "Tuned by EvalTuner on "+ tuner.getPositionCount() +
+                " positions; error "+ error +" at K "+ k);
+            System.out.println("Wrote weights to "+ outputFile);
+        } catch (IOException e) {
+            System.out.println("Could not write weights: "+ e.getMessage());
+            System.exit(1);
+        }
+
+        if (matchGames > 0) {
+            int[] result = match(evaluator, null, matchGames, depth);
+            System.out.println("Tuned vs built-in at depth "+ depth +": "+ result[0] +" wins, "+
+                result[1] +" draws, "+ result[2] +" losses");
+        }
+    }
+}
@@ -0,0 +1,234 @@
+// File:   ExtremeBoard.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: The ExtremeTicTacToe board for the search engine.
+
+/**
+ * A 4x4 ExtremeTicTacToe board. A player wins with four in a row, column or
+ * diagonal, four in a 2x2 square, or the four corners.
+ */
+public class ExtremeBoard extends LineBoard {
+    public static final Geometry GEOMETRY = new Geometry(4, 4, new long[] {
+        // Rows.
+        0x000F, 0x00F0, 0x0F00, 0xF000,
+        // Columns.
+        0x1111, 0x2222, 0x4444, 0x8888,
+        // Diagonals.
+        0x8421, 0x1248,
+        // Squares.
+        0x0033, 0x0066, 0x00CC, 0x0330, 0x0660, 0x0CC0, 0x3300, 0x6600, 0xCC00,
+        // Corners.
+        0x9009
+    });
+
+    /** Names of the kinds of lines, alike under rotations and reflections. */
+    public static final String[] LINE_KIND_NAMES = {
+        "edge", "middle", "diagonal", "cornerSquare", "edgeSquare", "centerSquare", "corners"
+    };
+    /** The kind of each of GEOMETRY's lines. */
+    public static final int[] LINE_KINDS = {
+        0, 1, 1, 0,
+        0, 1, 1, 0,
+        2, 2,
+        3, 4, 3, 4, 5, 4, 3, 4, 3,
+        6
+    };
+
+    // Tuned evaluation function; null to use eval()'s own.
+    private LineEvaluator evaluator;
+
+    /**
+     * Creates an empty board.
+     */
+    public ExtremeBoard() {
+        this("                ".toCharArray(), -1);
+    }
+
+    /**
+     * Creates a board from a position.
+     *
+     * @param board Should be 16 characters long, each character representing
+     *              one spot on the board. Valid characters are: X, O, and ' '.
+     * @param lastMove The spot (starting at 0) of the most recent move, or -1.
+     */
+    public ExtremeBoard(char[] board, int lastMove) {
+        super(GEOMETRY, board, lastMove);
+    }
+
+    public ExtremeBoard copy() {
+        ExtremeBoard copy = new ExtremeBoard();
+        copy.copyFrom(this);
+        copy.evaluator = evaluator;
+        return copy;
+    }
+
+    /**
+     * @return An evaluator for this board's lines, with its default weights;
+     *         load weights (such as EvalTuner's) into it before use.
+     */
+    public static LineEvaluator newEvaluator() {
+        return new LineEvaluator(GEOMETRY, LINE_KINDS, LINE_KIND_NAMES, 3, WIN / 2);
+    }
+
+    /**
+     * Evaluates this board, and the boards copied from it, with a tuned
+     * evaluator instead of eval()'s hand-picked weights.
+     *
+     * @param evaluator The evaluator, or null for eval()'s own.
+     */
+    public void setEvaluator(LineEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    public LineEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    // The built-in evaluation is a sum of terms that each look at a few
+    // spots: the first three spots of each column and of the top three rows,
+    // the diagonals, the top-left spots of the left squares, and the corners.
+    private static final int[][] TERM_SPOTS = {
+        {0, 4, 8}, {1, 5, 9}, {2, 6, 10}, {3, 7, 11},
+        {0, 1, 2}, {4, 5, 6}, {8, 9, 10},
+        {0, 5, 10, 15}, {3, 6, 9, 12},
+        {0, 1, 4}, {4, 5, 8}, {8, 9, 12},
+        {0, 3, 12}
+    };
+    private static final int DIAGONAL_ONE = 7, DIAGONAL_TWO = 8;
+    // Each term's value for every way of filling its spots, indexed by the
+    // spots' base 3 digits (0 open, 1 X, 2 O), the first spot lowest.
+    private static final int[][] TERM_VALUES = new int[TERM_SPOTS.length][];
+    // For each spot, the terms it's in and its digit's place value in each.
+    private static final int[][] TERMS_THROUGH = new int[16][];
+    private static final int[][] PLACES_THROUGH = new int[16][];
+
+    static {
+        for (int term = 0; term < TERM_SPOTS.length; term++) {
+            int size = TERM_SPOTS[term].length;
+            TERM_VALUES[term] = new int[size == 3 ? 27 : 81];
+            char[] filled = new char[size];
+            for (int state = 0; state < TERM_VALUES[term].length; state++) {
+                for (int i = 0, digits = state; i < size; i++, digits /= 3) {
+                    filled[i] = " XO".charAt(digits % 3);
+                }
+                TERM_VALUES[term][state] = termValue(term, filled);
+            }
+        }
+        for (int spot = 0; spot < 16; spot++) {
+            int count = 0;
+            for (int[] spots : TERM_SPOTS) {
+                for (int s : spots) {
+                    count += s == spot ? 1 : 0;
+                }
+            }
+            TERMS_THROUGH[spot] = new int[count];
+            PLACES_THROUGH[spot] = new int[count];
+            count = 0;
+            for (int term = 0; term < TERM_SPOTS.length; term++) {
+                for (int i = 0, place = 1; i < TERM_SPOTS[term].length; i++, place *= 3) {
+                    if (TERM_SPOTS[term][i] == spot) {
+                        TERMS_THROUGH[spot][count] = term;
+                        PLACES_THROUGH[spot][count++] = place;
+                    }
+                }
+            }
+        }
+    }
+
+    // Scratch space for evalChildren(): the state of each term.
+    private final int[] termStates = new int[TERM_SPOTS.length];
+
+    /**
+     * Scores one term of the built-in evaluation.
+     *
+     * @param term The term.
+     * @param s The term's spots, in TERM_SPOTS order: X, O, or ' '.
+     * @return +1 or -1 if the term counts for X or O, else 0.
+     */
+    private static int termValue(int term, char[] s) {
+        if (term == DIAGONAL_ONE) {
+            char a = s[0], b = s[1], c = s[2], d = s[3];
+            if (a == b && c == ' ' || a == c && b == ' ' || b == c && a == ' ' || a == d && b == ' '
+                    || a == b && d == ' ' || c == b && d == ' ' || b == d && a == ' ' || c == d && a == ' '
+                    || b == d && c == ' ' || a == d && c == ' ') {
+                return a == 'X' || b == 'X' || d == 'X' ? 1 : -1;
+            }
+            return 0;
+        }
+        if (term == DIAGONAL_TWO) {
+            char a = s[0], b = s[1], c = s[2], d = s[3];
+            if (a == b && c == ' ' || a == c && b == ' ' || b == c && a == ' ' || a == d && b == ' '
+                    || a == b && d == ' ' || c == b && d == ' ' || b == d && a == ' ' || c == d && a == ' '
+                    || b == d && c == ' ' || a == c && d == ' ' || c == d && b == ' ') {
+                return a == 'X' || b == 'X' || d == 'X' ? 1 : -1;
+            }
+            return 0;
+        }
+        // Two of the three spots alike and the other open.
+        if (s[0] == s[1] && s[2] == ' ' || s[0] == s[2] && s[1] == ' ' || s[1] == s[2] && s[0] == ' ') {
+            return s[0] == 'X' || s[1] == 'X' ? 1 : -1;
+        }
+        return 0;
+    }
+
+    /**
+     * @return The state of a term on this board (see TERM_VALUES).
+     */
+    private int termState(int term) {
+        int state = 0;
+        int[] termSpots = TERM_SPOTS[term];
+        for (int i = termSpots.length - 1; i >= 0; i--) {
+            int spot = termSpots[i];
+            state = state * 3 + (int) (x >>> spot & 1) + 2 * (int) (o >>> spot & 1);
+        }
+        return state;
+    }
+
+    /**
+     * Evaluates a non-terminal board, counting the columns, rows, diagonals,
+     * squares and corners that have two marks and an open spot among their
+     * first three spots: +1 each for X, -1 for O.
+     *
+     * @return A positive value favors X, negative favors O.
+     */
+    public int eval() {
+        if (evaluator != null) {
+            return evaluator.eval(x, o);
+        }
+        int total = 0;
+        for (int term = 0; term < TERM_SPOTS.length; term++) {
+            total += TERM_VALUES[term][termState(term)];
+        }
+        return total;
+    }
+
+    /**
+     * Evaluates the children together: each term is looked up once for this
+     * board, and each child only looks up again the few terms its move
+     * changes.
+     */
+    public void evalChildren(int[] moves, int count, int[] values) {
+        if (evaluator != null) {
+            evaluator.evalChildren(x, o, xToMove, moves, count, values);
+            return;
+        }
+        int total = 0;
+        for (int term = 0; term < TERM_SPOTS.length; term++) {
+            termStates[term] = termState(term);
+            total += TERM_VALUES[term][termStates[term]];
+        }
+        int digit = xToMove ? 1 : 2;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int[] terms = TERMS_THROUGH[move];
+            int[] places = PLACES_THROUGH[move];
+            int value = total;
+            for (int j = 0; j < terms.length; j++) {
+                int[] termValues = TERM_VALUES[terms[j]];
+                int state = termStates[terms[j]];
+                value += termValues[state + digit * places[j]] - termValues[state];
+            }
+            values[i] = value;
+        }
+    }
+}
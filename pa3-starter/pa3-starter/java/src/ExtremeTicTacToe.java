@@ -5,8 +5,10 @@
 
 // Github copilot was used to cleanup/revise the eval() method.
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -14,339 +16,26 @@ import java.util.Scanner;
  */
 public class ExtremeTicTacToe {
 
-    /**
-     * Represents a specific state of a tic-tac-toe board (the positions of the
-     * X's, O's, and open spots).
-     */
-    public class TicTacToeState implements GameState {
-        public char[] board;
-        public char lastPlayer;
-        public int move;
-
-        /**
-         * Initializes a tic-tac-toe state.
-         * 
-         * @param board Should be 16 characters long, each character 
-         *              representing one spot on the board. Valid 
-         *              characters are: X, O, and ' ' (space).
-         * @param lastPlayer The player who made the most recent move.
-         * @param move The spot selected in the most recent move.
-         */
-        public TicTacToeState(char[] board, char lastPlayer, int move){
-            this.board = board;
-            this.lastPlayer = lastPlayer;
-            this.move = move;
-        }
-
-        /**
-         * Updates the given spot on the board with the player's mark.
-         * 
-         * @param player The player who made the most recent move (should be X 
-         *               or O)
-         * @param move The spot selected in the most recent move, should be in
-         *             the range [1,16].
-         */
-        public void makeMove(char player, int move){
-            board[move-1] = player;
-            this.move = move;
-            this.lastPlayer = player;
-        }
-        
-        /**
-         * @return A summary of this state as a string, including the board, 
-         *         player, and action.
-         */
-        public String toString(){
-            return "[\n\tboard: "+ Arrays.toString(board) +",\n\tplayer: "+
-                lastPlayer +",\n\tmove: "+ move +"\n]";
-        }
-
-        /**
-         * @return A deep copy of this state.
-         */
-        public TicTacToeState clone(){
-            return new TicTacToeState(board.clone(), lastPlayer, move);
-        }
-
-        /**
-         * @return Returns true if the given tic-tac-toe state is terminal:
-         *      - four Xs or Os in a row (vertically, horizontally, or diagonally)
-         *      - four Xs or Os in a square
-         *      - four Xs or Os in the four corners
-         *      - all 16 spots are filled
-         */
-        public boolean isTerminal() {
-            boolean isFilled = true;
-            // Check if the board if filled.
-            for(int i = 0; i < board.length; i++){
-                if(board[i] == ' '){
-                    isFilled = false;
-                    break;
-                }
-            }
-            // True if the board is filled or there are four in a row, column, or diagonal, square, or corners.
-            return
-                // If we don't have four a win, but the whole board is full, then
-                // there's a draw.
-                isFilled || utility() != 0;
-        }
-
-            
-        /**
-         * Finds the utility of a terminal state. This 1 if X has four in a row, column, diagonal, corner, or square,
-         * -1 if O has four, and 0 otherwise.
-         * 
-         * @return 1 if X wins, -1 if O wins, 0 if a draw.
-         */
-        public double utility() {
-            // Four in a row by row.
-            if(board[0] == board[1] && board[0] == board[2] && board[0] == board[3] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-            
-            if(board[4] == board[5] && board[4] == board[6] && board[4] == board[7] && board[4] != ' ')
-            return board[4] == 'X' ? 1 : -1;
-
-            if(board[8] == board[9] && board[8] == board[10] && board[8] == board[11] && board[8] != ' ')
-            return board[8] == 'X' ? 1 : -1;
-
-            if(board[12] == board[13] && board[12] == board[14] && board[12] == board[15] && board[12] != ' ')
-            return board[12] == 'X' ? 1 : -1;
-
-
-            // Four in a row by column.
-            if(board[0] == board[4] && board[0] == board[8] && board[0] == board[12] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-
-            if(board[1] == board[5] && board[1] == board[9] && board[1] == board[13] && board[1] != ' ')
-            return board[1] == 'X' ? 1 : -1;
-
-            if(board[2] == board[6] && board[2] == board[10] && board[2] == board[14] && board[2] != ' ')
-            return board[2] == 'X' ? 1 : -1;
-
-            if(board[3] == board[7] && board[3] == board[11] && board[3] == board[15] && board[3] != ' ')
-            return board[3] == 'X' ? 1 : -1;
-
-
-            // Four in a row by diagonal.
-            if(board[0] == board[5] && board[0] == board[10] && board[0] == board[15] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-
-            if(board[3] == board[6] && board[3] == board[9] && board[3] == board[12] && board[3] != ' ')
-            return board[3] == 'X' ? 1 : -1;
-
-            // Four in a square.
-            if(board[0] == board[1] && board[0] == board[4] && board[0] == board[5] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-
-            if(board[1] == board[2] && board[1] == board[5] && board[1] == board[6] && board[1] != ' ')
-            return board[1] == 'X' ? 1 : -1;
-
-            if(board[2] == board[3] && board[2] == board[6] && board[2] == board[7] && board[2] != ' ')
-            return board[2] == 'X' ? 1 : -1;
-
-            if(board[4] == board[5] && board[4] == board[8] && board[4] == board[9] && board[4] != ' ')
-            return board[4] == 'X' ? 1 : -1;
-
-            if(board[5] == board[6] && board[5] == board[9] && board[5] == board[10] && board[5] != ' ')
-            return board[5] == 'X' ? 1 : -1;
-
-            if(board[6] == board[7] && board[6] == board[10] && board[6] == board[11] && board[6] != ' ')
-            return board[6] == 'X' ? 1 : -1;
-
-            if(board[8] == board[9] && board[8] == board[12] && board[8] == board[13] && board[8] != ' ')
-            return board[8] == 'X' ? 1 : -1;
-
-            if(board[9] == board[10] && board[9] == board[13] && board[9] == board[14] && board[9] != ' ')
-            return board[9] == 'X' ? 1 : -1;
-
-            if(board[10] == board[11] && board[10] == board[14] && board[10] == board[15] && board[10] != ' ')
-            return board[10] == 'X' ? 1 : -1;
-
-
-            // Four corners.
-            if(board[0] == board[3] && board[0] == board[12] && board[0] == board[15] && board[0] != ' ')
-            return board[0] == 'X' ? 1 : -1;
-
-            // If nothing else, draw.
-            return 0;
-        }
-        /**
-         * Evaluates a non-terminal state. Each column that has three X's or three O's
-         * and one open space yields a value of 1 (for X) or -1 (for O). This is
-         * summed across the four columns for the final value.
-         * 
-         * @return A positive return value favors X's chances of winning, negative
-         * favors O's, an 0 is an expected draw.
-         */
-        public double eval() { // This method was produced using github copilot
-            double total = 0;
-            // Two in a row by column.
-            for (int i = 0; i < 4; i++) {
-                if (board[i] == board[i + 4] && board[i + 8] == ' ' || board[i] == board[i + 8] && board[i + 4] == ' '
-                        || board[i + 4] == board[i + 8] && board[i] == ' ') {
-                    total += board[i] == 'X' || board[i + 4] == 'X' ? 1 : -1;
-                }
-            }
-
-            // Two in a row by row.
-            for (int i = 0; i < 12; i += 4) {
-                if (board[i] == board[i + 1] && board[i + 2] == ' ' || board[i] == board[i + 2] && board[i + 1] == ' '
-                        || board[i + 1] == board[i + 2] && board[i] == ' ') {
-                    total += board[i] == 'X' || board[i + 1] == 'X' ? 1 : -1;
-                }
-            }
-
-            // Two in a row by diagonal.
-            if (board[0] == board[5] && board[10] == ' ' || board[0] == board[10] && board[5] == ' '
-                    || board[5] == board[10] && board[0] == ' ' || board[0] == board[15] && board[5] == ' '
-                    || board[0] == board[5] && board[15] == ' ' || board[10] == board[5] && board[15] == ' '
-                    || board[5] == board[15] && board[0] == ' ' || board[10] == board[15] && board[0] == ' '
-                    || board[5] == board[15] && board[10] == ' ' || board[0] == board[15] && board[10] == ' ') {
-                total += board[0] == 'X' || board[5] == 'X' || board[15] == 'X' ? 1 : -1;
-            }
-
-            if (board[3] == board[6] && board[9] == ' ' || board[3] == board[9] && board[6] == ' '
-                    || board[6] == board[9] && board[3] == ' ' || board[3] == board[12] && board[6] == ' '
-                    || board[3] == board[6] && board[12] == ' ' || board[9] == board[6] && board[12] == ' '
-                    || board[6] == board[12] && board[3] == ' ' || board[9] == board[12] && board[3] == ' '
-                    || board[6] == board[12] && board[9] == ' ' || board[3] == board[9] && board[12] == ' '
-                    || board[3] == board[9] && board[12] == ' ' || board[9] == board[12] && board[6] == ' ') {
-                total += board[3] == 'X' || board[6] == 'X' || board[12] == 'X' ? 1 : -1;
-            }
-
-            // Two in a square.
-            for (int i = 0; i < 12; i += 4) {
-                if (board[i] == board[i + 1] && board[i + 4] == ' ' || board[i] == board[i + 4] && board[i + 1] == ' '
-                        || board[i + 1] == board[i + 4] && board[i] == ' ') {
-                    total += board[i] == 'X' || board[i + 1] == 'X' ? 1 : -1;
-                }
-            }
-
-            // Four corners.
-            if (board[0] == board[3] && board[12] == ' ' || board[0] == board[12] && board[3] == ' '
-                    || board[3] == board[12] && board[0] == ' ') {
-                total += board[0] == 'X' || board[3] == 'X' ? 1 : -1;
-            }
-
-            return total;
-        }
-        /**
-         * Generates a list of successors for the current state. These are all
-         * possible moves of the next player into blank spaces, where the "next
-         * player" is whichever player isn't state.player.
-         * 
-         * @return A list of all possible successor of the given state for the next
-         *         player.
-         */
-        public ArrayList<TicTacToeState> successors() {
-            ArrayList<TicTacToeState> successorStates = new ArrayList<TicTacToeState>();
-            TicTacToeState successorState;
-            char nextPlayer = lastPlayer == 'X' ? 'O' : 'X';
-
-            for(int i = 0; i < board.length; i++){
-                if(board[i] == ' '){
-                    successorState = clone();
-                    successorState.makeMove(nextPlayer, i+1);
-                    successorStates.add(successorState);
-                }
-            }
-            
-            return successorStates;
-        }
-
-        /**
-         * Determines if this is a "max" state, meaning a state for which Minimax
-         * should be maximizing over values of successors, meaning it's X's turn
-         * next.
-         * 
-         * @return True if the next player is X.
-         */
-        public boolean isMax() {
-            // If the last player is O, then X is now going and therefore we're in
-            // a max node.
-            return lastPlayer == 'O'; 
-        }
-
-        /**
-         * A helper function that simply wraps a move (extracted from the given 
-         * state) and the utility value of this terminal state.
-         * 
-         * @return state.move and utility wrapped up in an easy to use object.
-         */
-        public TicTacToeActionUtility getActionUtility() {
-            return new TicTacToeActionUtility(move, utility());
-        }
-
-        /**
-         * A helper function that simply wraps a move (extracted from the given 
-         * state) and the evaluation value for this state.
-         * 
-         * @return state.move and utility wrapped up in an easy to use object.
-         */
-        public TicTacToeActionUtility getActionEval() {
-            return new TicTacToeActionUtility(move, eval());
-        }
-
-        
-        /**
-         * A helper function that simply wraps a move (extracted from the given 
-         * state) and the evaluation value for this state.
-         * 
-         * @return state.move and utility wrapped up in an easy to use object.
-         */
-        public TicTacToeActionUtility getActionUtility(double utility) {
-            return new TicTacToeActionUtility(move, utility);
-        }
-
-    }
-
-    /**
-     * Serves as a wrapper for a tic-tac-toe move and the utility associated
-     * with it.
-     */
-    public class TicTacToeActionUtility implements ActionUtility  {
-        public double utility;
-        public int move;
-
-        /**
-         * Initializes the action and utility.
-         * @param move The spot selected in the most recent move.
-         * @param utility The utility value associated with the move.
-         */
-        public TicTacToeActionUtility(int move, double utility){
-            this.move = move;
-            this.utility = utility;
-        }
-
-        /**
-         * @return The utility of this move.
-         */
-        public double getUtility() {
-            return utility;
-        }
-
-        /**
-         * @return A description of this move and utility.
-         */
-        public String toString(){
-            return "[\n\tmove: "+ move +",\n\tutility: "+ utility +"\n]";
-        }
-    }
-
-
     // TicTacToe data members.
-    TicTacToeState currentState;
+    ExtremeBoard board;
     int loggingDepth;
     Scanner input;
     Minimax minimax;
     boolean useAlphaBeta;
     boolean useDepthLimit;
     int depth;
+    boolean ponder;
+    TranspositionTable table;
+    SearchEngine engine;
+    PersistentCache cache;
+    LineEvaluator evaluator;
+    int lineCount;
+    Profile profile;
 
     /**
      * Initializes helpers for the game.
      */
-    public ExtremeTicTacToe(int loggingDepth, boolean useAlphaBeta, boolean useDepthLimit, int depth) {
+    public ExtremeTicTacToe(int loggingDepth, boolean useAlphaBeta, boolean useDepthLimit, int depth, boolean ponder, Profile profile) {
         input = new Scanner(System.in);
         minimax = new Minimax();
         Minimax.setAlphaBeta(useAlphaBeta);
@@ -354,7 +43,79 @@ public class ExtremeTicTacToe {
         this.useAlphaBeta = useAlphaBeta;
         this.useDepthLimit = useDepthLimit;
         this.depth = depth;
-        System.out.println("useAlphaBeta: "+ useAlphaBeta +", useDepthLimit: "+ useDepthLimit +", depth: "+ depth +", loggingDepth: "+ loggingDepth);
+        this.ponder = ponder;
+        if (ponder || profile != null) {
+            useEngine();
+        }
+        this.profile = profile;
+        minimax.setProfile(profile);
+        if (profile != null) {
+            System.out.println("Profile: "+ profile);
+        }
+        System.out.println("useAlphaBeta: "+ useAlphaBeta +", useDepthLimit: "+ useDepthLimit +", depth: "+ depth +", loggingDepth: "+ loggingDepth +", ponder: "+ ponder);
+    }
+
+    /**
+     * Has the computer keep one engine for the whole game rather than start
+     * afresh each move.
+     */
+    private void useEngine() {
+        if (engine == null) {
+            // The computer's searches (and its helper threads and pondering)
+            // share one table.
+            table = new TranspositionTable(20);
+            engine = new SearchEngine(useAlphaBeta);
+            engine.setTranspositionTable(table);
+            engine.setHistory(true);
+            minimax.setEngine(engine);
+        }
+    }
+
+    /**
+     * Has the computer keep what it proves in a cache file, and use what
+     * earlier games proved.
+     * 
+     * @param cache The cache to use.
+     */
+    public void setCache(PersistentCache cache) {
+        this.cache = cache;
+        useEngine();
+        engine.setPersistentCache(cache);
+    }
+
+    /**
+     * Has the computer show its best few moves after each search, with
+     * their scores and the lines it expects after them.
+     * 
+     * @param lineCount How many moves to show; 0 or 1 to show none.
+     */
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+        if (lineCount > 1) {
+            useEngine();
+            engine.setMultiPV(lineCount);
+        }
+    }
+
+    /**
+     * Sets how few open spots a board must have before the computer solves
+     * it exactly rather than searching it to the depth limit.
+     * 
+     * @param endgameSpots The most open spots a board can have to be solved;
+     *                     0 to never solve one.
+     */
+    public void setEndgameSpots(int endgameSpots) {
+        useEngine();
+        engine.setEndgameSpots(endgameSpots);
+    }
+
+    /**
+     * Has the computer evaluate boards with tuned weights.
+     * 
+     * @param evaluator The evaluator to use, or null for the built-in one.
+     */
+    public void setEvaluator(LineEvaluator evaluator) {
+        this.evaluator = evaluator;
     }
 
     /**
@@ -362,15 +123,21 @@ public class ExtremeTicTacToe {
      */
     public void run(){
         int userMove, aiMove;
-        currentState = new TicTacToeState("                ".toCharArray(), '?', 0);
+        Ponderer ponderer = null;
+        board = new ExtremeBoard();
+        board.setEvaluator(evaluator);
         System.out.println("Key: ");
         printBoard(new char[] {'1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F', 'G'});
         System.out.println();
-        printBoard(currentState.board);
+        printBoard(board.toCharArray());
 
         // Until the game is over.
         while(true){
-            // Human's turn.
+            // Human's turn; the computer thinks about its answers meanwhile.
+            if (ponder) {
+                ponderer = new Ponderer(board, engine, depth, profile);
+                ponderer.start();
+            }
             System.out.print("Your turn; enter the space # where you'd like to put your X: ");
             String userInput = input.next();
             if (userInput.length() == 1) {
@@ -397,7 +164,7 @@ public class ExtremeTicTacToe {
                     userMove = Integer.parseInt(userInput);
                 }
             }
-            while (currentState.board[userMove - 1] != ' ') { // Check if the spot is taken.
+            while (board.spot(userMove - 1) != ' ') { // Check if the spot is taken.
                 System.out.print("That spot is taken; try again: ");
                 userInput = input.next();
                 if (userInput.length() == 1) {
@@ -411,35 +178,63 @@ public class ExtremeTicTacToe {
                     userMove = Integer.parseInt(userInput);
                 }
             }
-            currentState.makeMove('X', userMove); // Make the move.
+            if (ponderer != null) {
+                ponderer.stop();
+            }
+            board.makeMove(userMove - 1); // Make the move.
 
-            printBoard(currentState.board);
+            printBoard(board.toCharArray());
 
             // Check if the human won.
-            if(currentState.isTerminal())
+            if(board.isTerminal())
                 break;
 
-            // System.out.println(currentState);
+            // System.out.println(board);
             // break;
 
             // Computer's turn.
             System.out.println("\nComputer's turn:");
-            aiMove = ((TicTacToeActionUtility) minimax.value(currentState, depth, loggingDepth, "", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY)).move;
-            System.out.println("States expanded: " + Minimax.getStateCount());
+            SearchResult pondered = ponderer != null ? ponderer.resultFor(userMove - 1) : null;
+            if (pondered != null) {
+                aiMove = pondered.move + 1;
+                System.out.println("States expanded while pondering: " + ponderer.getStateCount());
+                if (lineCount > 1) {
+                    printLines(ponderer.linesFor(userMove - 1));
+                }
+            } else {
+                aiMove = minimax.search(new SearchBoardState(board.copy()), depth, loggingDepth).getMove();
+                System.out.println("States expanded: " + Minimax.getStateCount());
+                if (lineCount > 1) {
+                    printLines(engine.getLines());
+                }
+            }
             Minimax.resetStateCount();
-            currentState.makeMove('O', aiMove);
+            board.makeMove(aiMove - 1);
 
-            printBoard(currentState.board);
+            printBoard(board.toCharArray());
 
             // Check if the AI won.
-            if(currentState.isTerminal())
+            if(board.isTerminal())
                 break;
         }
 
-        System.out.println("Game over. Utility: "+ currentState.utility());
+        System.out.println("Game over. Utility: "+ (double) board.utility() / SearchBoard.WIN);
 
     }
 
+    /**
+     * Prints a search's best moves, one per line: the move, its score
+     * (X's point of view) and the line expected after it.
+     * 
+     * @param lines The moves, best first.
+     */
+    public static void printLines(List<SearchResult> lines) {
+        System.out.println("Best moves:");
+        for (int i = 0; i < lines.size(); i++) {
+            System.out.println("  "+ (i + 1) +". "+ lines.get(i).describeLine());
+        }
+    }
+
     /**
      * Prints the board as a 4x4 table.
      * 
@@ -462,19 +257,38 @@ public class ExtremeTicTacToe {
      * @param args Ignored.
      */
         public static void main(String[] args) {
-            String USAGE = "Usage: java ExtremeTicTacToe [-h] [-a] [-d <depth>] [-l <loggingDepth>]\n" +
+            String USAGE = "Usage: java ExtremeTicTacToe [-h] [-a] [-d <depth>] [-l <loggingDepth>] [-t <traceFile>] [-e <treeFile>] [-E <treeDepth>] [-P] [-k <count>] [-p <profile>] [-f <profileFile>] [-w <weightsFile>] [-c <cacheFile>] [-s <spots>]\n" +
                     "All parameters are optional.\n" +
                     "  -h: Display this help message.\n" +
                     "  -a: Enable alpha-beta pruning.\n" +
                     "  -d <depth>: Specify the depth for depth-limited minimax.\n" +
-                    "  -l <loggingDepth>: Specify the logging depth.\n"+
-                    "  -p <profile>: Specify beginner, intermediate, or advanced profile. (-a and d parameters will be ignored)\n";
+                    "  -l <loggingDepth>: Specify the logging depth.\n" +
+                    "  -t <traceFile>: Write a binary trace of each search (view it with TraceViewer).\n" +
+                    "  -e <treeFile>: Export each search tree (explore it with TreeExplorer).\n" +
+                    "  -E <treeDepth>: Only export the tree down to this ply.\n"+
+                    "  -P: Ponder (search ahead) while it's your turn.\n"+
+                    "  -k <count>: Show the computer's <count> best moves, with scores and expected lines, after each search.\n"+
+                    "  -p <profile>: Specify beginner, intermediate, or advanced profile. (-a and d parameters will be ignored)\n" +
+                    "  -f <profileFile>: Read the profiles' time, node, thread and noise budgets from a file.\n" +
+                    "  -w <weightsFile>: Evaluate with weights tuned by EvalTuner.\n" +
+                    "  -c <cacheFile>: Keep what the computer proves in a cache file, to reuse in later games.\n" +
+                    "  -s <spots>: Solve boards with this many open spots or fewer exactly (default 10; 0 for never).\n";
 
 
             int loggingDepth = 0;
+            String traceFile = null;
+            String treeFile = null;
+            int treeDepth = -1;
             boolean useAlphaBeta = false;
             boolean useDepthLimit = false;
             int depth = -1;
+            boolean ponder = false;
+            int lineCount = 0;
+            String profileName = null;
+            String profileFile = null;
+            String weightsFile = null;
+            String cacheFile = null;
+            int endgameSpots = -1;
 
             if (args.length > 0) {
                 if (args[0].equals("-h")) {
@@ -486,6 +300,9 @@ public class ExtremeTicTacToe {
                     if (args[i].equals("-a")) {
                         useAlphaBeta = true;
                     }
+                    if (args[i].equals("-P")) {
+                        ponder = true;
+                    }
                     if (args[i].equals("-d")) {
                         if (i + 1 < args.length) {
                             depth = Integer.parseInt(args[i + 1]);
@@ -496,6 +313,15 @@ public class ExtremeTicTacToe {
                             System.exit(0);
                         }
                     }
+                    if (args[i].equals("-k")) {
+                        if (i + 1 < args.length) {
+                            lineCount = Integer.parseInt(args[i + 1]);
+                        } else {
+                            System.out.println("Invalid move count value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
                     if (args[i].equals("-l")) {
                         if (i + 1 < args.length) {
                             loggingDepth = Integer.parseInt(args[i + 1]);
@@ -505,37 +331,187 @@ public class ExtremeTicTacToe {
                             System.exit(0);
                         }
                     }
+                    if (args[i].equals("-t")) {
+                        if (i + 1 < args.length) {
+                            traceFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid trace file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-e")) {
+                        if (i + 1 < args.length) {
+                            treeFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid tree file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-E")) {
+                        if (i + 1 < args.length) {
+                            treeDepth = Integer.parseInt(args[i + 1]);
+                        } else {
+                            System.out.println("Invalid tree depth value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
                     if (args[i].equals("-p")) {
                         if (i + 1 < args.length) {
-                            String profile = args[i + 1];
-                            if (profile.equals("beginner")) {
-                                useAlphaBeta = true;
-                                useDepthLimit = true;
-                                depth = 5;
-                            } else if (profile.equals("intermediate")) {
-                                useAlphaBeta = true;
-                                useDepthLimit = true;
-                                depth = 8;
-                            } else if (profile.equals("advanced")) {
-                                useAlphaBeta = true;
-                                useDepthLimit = true;
-                                depth = 13;
-                            } else {
-                                System.out.println("Invalid profile. Please choose from beginner, intermediate, or advanced.");
-                                System.out.println(USAGE);
-                                System.exit(0);
-                            }
+                            profileName = args[i + 1];
                         } else {
                             System.out.println("Invalid profile value.");
                             System.out.println(USAGE);
                             System.exit(0);
                         }
                     }
+                    if (args[i].equals("-c")) {
+                        if (i + 1 < args.length) {
+                            cacheFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid cache file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-w")) {
+                        if (i + 1 < args.length) {
+                            weightsFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid weights file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-s")) {
+                        if (i + 1 < args.length) {
+                            endgameSpots = Integer.parseInt(args[i + 1]);
+                        } else {
+                            System.out.println("Invalid endgame spots value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-f")) {
+                        if (i + 1 < args.length) {
+                            profileFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid profile file value.");
+                            System.out.println(USAGE);
+                            System.exit(0);
+                        }
+                    }
+                }
+            }
+
+            Profile profile = null;
+            if (profileName != null) {
+                Map<String, Profile> profiles = null;
+                try {
+                    profiles = profileFile != null ? Profile.load(Paths.get(profileFile)) : Profile.defaults();
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Could not read profile file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                profile = profiles.get(profileName);
+                if (profile == null) {
+                    System.out.println("Invalid profile. Please choose from "+ String.join(", ", profiles.keySet()) +".");
+                    System.out.println(USAGE);
+                    System.exit(0);
                 }
+                useAlphaBeta = true;
+                useDepthLimit = profile.maxDepth >= 0;
+                depth = profile.maxDepth;
+            }
+
+            if (ponder && (loggingDepth > 0 || traceFile != null || treeFile != null)) {
+                // Pondered moves wouldn't show up in the logs.
+                System.out.println("Pondering is off while logging, tracing or exporting.");
+                ponder = false;
+            }
+            if (lineCount > 1 && (loggingDepth > 0 || traceFile != null || treeFile != null)) {
+                // Those searches don't go through the engine.
+                System.out.println("Best moves aren't shown while logging, tracing or exporting.");
+                lineCount = 0;
+            }
+            ExtremeTicTacToe extremetictactoe = new ExtremeTicTacToe(loggingDepth, useAlphaBeta, useDepthLimit, depth, ponder, profile);
+            extremetictactoe.setLineCount(lineCount);
+            if (endgameSpots >= 0) {
+                extremetictactoe.setEndgameSpots(endgameSpots);
+            }
+            if (weightsFile != null) {
+                LineEvaluator evaluator = ExtremeBoard.newEvaluator();
+                try {
+                    evaluator.load(Paths.get(weightsFile));
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Could not read weights file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                extremetictactoe.setEvaluator(evaluator);
+            }
+            PersistentCache cache = null;
+            if (cacheFile != null) {
+                try {
+                    cache = new PersistentCache(Paths.get(cacheFile), ExtremeBoard.GEOMETRY, 20);
+                } catch (IOException e) {
+                    System.out.println("Could not open cache file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                if (!cache.isWritable()) {
+                    System.out.println("The cache file is in use; it won't be updated this game.");
+                }
+                extremetictactoe.setCache(cache);
+            }
+            SearchTrace trace = null;
+            if (traceFile != null) {
+                try {
+                    trace = new SearchTrace(Paths.get(traceFile));
+                } catch (IOException e) {
+                    System.out.println("Could not open trace file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                Minimax.setTrace(trace);
+            }
+            SearchTreeWriter tree = null;
+            if (treeFile != null) {
+                try {
+                    tree = new SearchTreeWriter(Paths.get(treeFile), 16, treeDepth);
+                } catch (IOException e) {
+                    System.out.println("Could not open tree file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                Minimax.setTree(tree);
             }
 
-            ExtremeTicTacToe extremetictactoe = new ExtremeTicTacToe(loggingDepth, useAlphaBeta, useDepthLimit, depth);
             extremetictactoe.run();
+
+            if (trace != null) {
+                try {
+                    trace.close();
+                    System.out.println("Wrote "+ trace.getRecordCount() +" trace records to "+ traceFile);
+                } catch (IOException e) {
+                    System.out.println("Could not write trace file: "+ e.getMessage());
+                }
+            }
+            if (tree != null) {
+                try {
+                    tree.close();
+                    System.out.println("Wrote "+ tree.getRecordCount() +" tree records to "+ treeFile);
+                } catch (IOException e) {
+                    System.out.println("Could not write tree file: "+ e.getMessage());
+                }
+            }
+            if (cache != null) {
+                try {
+                    long stores = cache.getStoreCount();
+                    cache.close();
+                    System.out.println("Stored "+ stores +" results in "+ cacheFile);
+                } catch (IOException e) {
+                    System.out.println("Could not write cache file: "+ e.getMessage());
+                }
+            }
         }
     }
 
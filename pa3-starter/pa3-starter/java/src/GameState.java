@@ -17,5 +17,7 @@ public interface GameState {
     public ActionUtility getActionUtility();
     public ActionUtility getActionEval();
     public ActionUtility getActionUtility(double utility);
+    public int getMove();
+    public long playerMask(char player);
     public String toString();
 }
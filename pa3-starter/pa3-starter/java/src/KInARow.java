@@ -0,0 +1,229 @@
+// File:   KInARow.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Plays a generalized tic-tac-toe game on an NxN board between the
+//          user and the computer using Minimax.
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Represents a k-in-a-row game on a board of up to 8x8 spots, won by any of
+ * the shapes given in the rules (see WinShapes).
+ */
+public class KInARow {
+    public static final String DEFAULT_RULES = "line:4,square:2";
+
+    // KInARow data members.
+    KInARowBoard board;
+    int size;
+    int loggingDepth;
+    Scanner input;
+    Minimax minimax;
+    boolean useAlphaBeta;
+    int depth;
+
+    /**
+     * Initializes helpers for the game.
+     */
+    public KInARow(int size, String rules, int loggingDepth, boolean useAlphaBeta, int depth, Profile profile) {
+        input = new Scanner(System.in);
+        minimax = new Minimax();
+        Minimax.setAlphaBeta(useAlphaBeta);
+        this.size = size;
+        this.board = new KInARowBoard(WinShapes.parse(size, size, rules));
+        this.loggingDepth = loggingDepth;
+        this.useAlphaBeta = useAlphaBeta;
+        this.depth = depth;
+        minimax.setProfile(profile);
+        if (profile != null) {
+            System.out.println("Profile: "+ profile);
+        }
+        System.out.println("board: "+ size +"x"+ size +", rules: "+ rules +", win lines: "+
+            board.getGeometry().lines.length +", useAlphaBeta: "+ useAlphaBeta +", depth: "+ depth);
+    }
+
+    /**
+     * Sets how few open spots a board must have before the computer solves
+     * it exactly rather than searching it to the depth limit.
+     * 
+     * @param endgameSpots The most open spots a board can have to be solved;
+     *                     0 to never solve one.
+     */
+    public void setEndgameSpots(int endgameSpots) {
+        SearchEngine engine = new SearchEngine(useAlphaBeta);
+        engine.setEndgameSpots(endgameSpots);
+        minimax.setEngine(engine);
+    }
+
+    /**
+     * Starts a game between the user and the computer.
+     */
+    public void run(){
+        int userMove, aiMove;
+        System.out.println("Key: ");
+        printKey();
+        System.out.println();
+        printBoard(board.toCharArray());
+
+        // Until the game is over.
+        while(true){
+            // Human's turn.
+            System.out.print("Your turn; enter the space # where you'd like to put your X: ");
+            userMove = input.nextInt();
+            while(userMove < 1 || userMove > size * size || board.spot(userMove - 1) != ' '){
+                System.out.print("Invalid move or that spot is taken; try again: ");
+                userMove = input.nextInt();
+            }
+            board.makeMove(userMove - 1);
+
+            printBoard(board.toCharArray());
+
+            // Check if the human won.
+            if(board.isTerminal())
+                break;
+
+            // Computer's turn.
+            System.out.println("\nComputer's turn:");
+            aiMove = minimax.search(new SearchBoardState(board.copy()), depth, loggingDepth).getMove();
+            System.out.println("States expanded: " + Minimax.getStateCount());
+            Minimax.resetStateCount();
+            board.makeMove(aiMove - 1);
+
+            printBoard(board.toCharArray());
+
+            // Check if the AI won.
+            if(board.isTerminal())
+                break;
+        }
+
+        System.out.println("Game over. Utility: "+ (double) board.utility() / SearchBoard.WIN);
+    }
+
+    /**
+     * Prints the number of each spot.
+     */
+    public void printKey(){
+        for(int i = 0; i < size * size; i++){
+            if(i > 0 && i % size == 0){
+                System.out.println("\n"+ "----+".repeat(size - 1) +"----");
+            }
+            System.out.printf(" %2d ", i + 1);
+            if(i % size < size - 1){
+                System.out.print("|");
+            }
+        }
+        System.out.println();
+    }
+
+    /**
+     * Prints the board as a table.
+     * 
+     * @param board The board to print.
+     */
+    public void printBoard(char[] board){
+        for(int i = 0; i < board.length; i++){
+            if(i > 0 && i % size == 0){
+                System.out.println("\n"+ "---+".repeat(size - 1) +"---");
+            }
+            System.out.print(" "+ board[i] + " ");
+            if(i % size < size - 1){
+                System.out.print("|");
+            }
+        }
+        System.out.println();
+    }
+
+    /**
+     * Starts a game between the user and the computer.
+     * @param args See USAGE.
+     */
+    public static void main(String[] args) {
+        String USAGE = "Usage: java KInARow [-h] [-n <size>] [-r <rules>] [-a] [-d <depth>] [-p <profile>] [-f <profileFile>] [-l <loggingDepth>] [-s <spots>]\n" +
+                "All parameters are optional.\n" +
+                "  -h: Display this help message.\n" +
+                "  -n <size>: The board is size x size, up to 8 (default 5).\n" +
+                "  -r <rules>: The winning shapes (default "+ DEFAULT_RULES +"); a comma separated\n" +
+                "              list of row:k, column:k, diagonal:k, line:k, square:s and corners.\n" +
+                "  -a: Enable alpha-beta pruning.\n" +
+                "  -d <depth>: Specify the depth for depth-limited minimax.\n" +
+                "  -p <profile>: Specify beginner, intermediate, or advanced profile. (-a and d parameters will be ignored)\n" +
+                "  -f <profileFile>: Read the profiles' time, node, thread and noise budgets from a file.\n" +
+                "  -l <loggingDepth>: Specify the logging depth.\n" +
+                "  -s <spots>: Solve boards with this many open spots or fewer exactly (default 0, never).\n";
+
+        int size = 5;
+        String rules = DEFAULT_RULES;
+        int loggingDepth = 0;
+        boolean useAlphaBeta = false;
+        int depth = -1;
+        String profileName = null;
+        String profileFile = null;
+        int endgameSpots = -1;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-h")) {
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            if (args[i].equals("-a")) {
+                useAlphaBeta = true;
+            }
+            if (args[i].equals("-n") || args[i].equals("-r") || args[i].equals("-d") ||
+                    args[i].equals("-p") || args[i].equals("-f") || args[i].equals("-l") || args[i].equals("-s")) {
+                if (i + 1 >= args.length) {
+                    System.out.println("Missing value for "+ args[i] +".");
+                    System.out.println(USAGE);
+                    System.exit(0);
+                }
+                String value = args[i + 1];
+                if (args[i].equals("-n")) size = Integer.parseInt(value);
+                if (args[i].equals("-r")) rules = value;
+                if (args[i].equals("-d")) depth = Integer.parseInt(value);
+                if (args[i].equals("-p")) profileName = value;
+                if (args[i].equals("-f")) profileFile = value;
+                if (args[i].equals("-l")) loggingDepth = Integer.parseInt(value);
+                if (args[i].equals("-s")) endgameSpots = Integer.parseInt(value);
+            }
+        }
+
+        if (size < 3 || size > 8) {
+            System.out.println("Invalid size; boards can be 3x3 up to 8x8.");
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+        Profile profile = null;
+        if (profileName != null) {
+            Map<String, Profile> profiles = null;
+            try {
+                profiles = profileFile != null ? Profile.load(Paths.get(profileFile)) : Profile.defaults();
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Could not read profile file: "+ e.getMessage());
+                System.exit(0);
+            }
+            profile = profiles.get(profileName);
+            if (profile == null) {
+                System.out.println("Invalid profile. Please choose from "+ String.join(", ", profiles.keySet()) +".");
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            useAlphaBeta = true;
+            depth = profile.maxDepth;
+        }
+
+        KInARow game = null;
+        try {
+            game = new KInARow(size, rules, loggingDepth, useAlphaBeta, depth, profile);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid rules: "+ e.getMessage());
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+        if (endgameSpots >= 0) {
+            game.setEndgameSpots(endgameSpots);
+        }
+        game.run();
+    }
+}
@@ -0,0 +1,138 @@
+// File:   KInARowBoard.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: A board of any size up to 8x8 with configurable win shapes.
+
+import java.util.Arrays;
+
+/**
+ * A generalized tic-tac-toe board whose win lines come from WinShapes. Its
+ * evaluation is bit parallel: each line that only one player has marks in
+ * is worth the square of the number of marks to that player, found with a
+ * couple of mask operations and a bit count per line.
+ */
+public class KInARowBoard extends LineBoard {
+    // Evaluations stay well clear of a win.
+    private static final int MAX_EVAL = WIN / 2;
+
+    // Spots ordered from the one on the most win lines to the fewest.
+    private final int[] moveOrder;
+
+    /**
+     * Creates an empty board.
+     *
+     * @param geometry The board's shape, e.g. from WinShapes.parse().
+     */
+    public KInARowBoard(Geometry geometry) {
+        this(geometry, blank(geometry.cells), -1);
+    }
+
+    /**
+     * Creates a board from a position.
+     *
+     * @param geometry The board's shape.
+     * @param board One character per spot, row by row: X, O, or ' '.
+     * @param lastMove The spot (starting at 0) of the most recent move, or -1.
+     */
+    public KInARowBoard(Geometry geometry, char[] board, int lastMove) {
+        this(geometry, board, lastMove, orderMoves(geometry));
+    }
+
+    private KInARowBoard(Geometry geometry, char[] board, int lastMove, int[] moveOrder) {
+        super(geometry, board, lastMove);
+        this.moveOrder = moveOrder;
+    }
+
+    private static char[] blank(int cells) {
+        char[] board = new char[cells];
+        Arrays.fill(board, ' ');
+        return board;
+    }
+
+    /**
+     * @return The spots sorted so the ones on the most lines come first;
+     *         alpha-beta prunes far more when those are searched first.
+     */
+    private static int[] orderMoves(Geometry geometry) {
+        Integer[] order = new Integer[geometry.cells];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) ->
+            geometry.linesThrough[b].length - geometry.linesThrough[a].length);
+        int[] moveOrder = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            moveOrder[i] = order[i];
+        }
+        return moveOrder;
+    }
+
+    public KInARowBoard copy() {
+        KInARowBoard copy = new KInARowBoard(geometry, spots, -1, moveOrder);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Generates the open spots, most promising first.
+     */
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        long taken = x | o;
+        for (int spot : moveOrder) {
+            if ((taken >>> spot & 1) == 0) {
+                moves[count++] = spot;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The sum over the open lines of the square of the number of
+     *         marks in them, positive for X's lines and negative for O's.
+     */
+    public int eval() {
+        int total = 0;
+        for (long line : geometry.lines) {
+            total += lineValue(line, x, o);
+        }
+        return Math.max(-MAX_EVAL, Math.min(MAX_EVAL, total));
+    }
+
+    /**
+     * Evaluates the children from this board's total: a move only changes
+     * the lines through its spot.
+     */
+    public void evalChildren(int[] moves, int count, int[] values) {
+        int total = 0;
+        for (long line : geometry.lines) {
+            total += lineValue(line, x, o);
+        }
+        for (int i = 0; i < count; i++) {
+            long bit = 1L << moves[i];
+            long childX = xToMove ? x | bit : x;
+            long childO = xToMove ? o : o | bit;
+            int value = total;
+            for (long line : geometry.linesThrough[moves[i]]) {
+                value += lineValue(line, childX, childO) - lineValue(line, x, o);
+            }
+            values[i] = Math.max(-MAX_EVAL, Math.min(MAX_EVAL, value));
+        }
+    }
+
+    /**
+     * @return What one line adds to eval().
+     */
+    private static int lineValue(long line, long x, long o) {
+        long mine = x & line;
+        long theirs = o & line;
+        if (theirs == 0) {
+            int marks = Long.bitCount(mine);
+            return marks * marks;
+        } else if (mine == 0) {
+            int marks = Long.bitCount(theirs);
+            return -marks * marks;
+        }
+        return 0;
+    }
+}
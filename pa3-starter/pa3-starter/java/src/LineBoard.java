@@ -0,0 +1,309 @@
+// File:   LineBoard.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: A bitboard for games won by filling in one of a set of lines.
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Common code for tic-tac-toe style boards of up to 64 spots. Each player's
+ * spots are kept as a bit mask (bit i is spot i, row by row), and a player
+ * wins by covering every spot of one of the geometry's win lines. X always
+ * moves first.
+ */
+public abstract class LineBoard implements SearchBoard {
+
+    /**
+     * The fixed shape of a board: its size and the lines that win. This is
+     * shared by every board of a game, so copying a board stays cheap.
+     */
+    public static final class Geometry {
+        public final int width;
+        public final int height;
+        public final int cells;
+        public final long full;
+        public final long[] lines;
+        public final long[][] linesThrough;
+
+        /**
+         * @param width The number of spots in a row.
+         * @param height The number of rows.
+         * @param lines The win lines, each a mask of the spots it covers.
+         */
+        public Geometry(int width, int height, long[] lines) {
+            this.width = width;
+            this.height = height;
+            this.cells = width * height;
+            this.full = cells == 64 ? -1L : (1L << cells) - 1;
+            this.lines = lines.clone();
+            this.linesThrough = new long[cells][];
+            for (int i = 0; i < cells; i++) {
+                ArrayList<Long> through = new ArrayList<Long>();
+                for (long line : lines) {
+                    if ((line >>> i & 1) != 0) {
+                        through.add(line);
+                    }
+                }
+                linesThrough[i] = new long[through.size()];
+                for (int j = 0; j < through.size(); j++) {
+                    linesThrough[i][j] = through.get(j);
+                }
+            }
+        }
+    }
+
+    // Random keys for Zobrist hashing, one per spot per player.
+    private static final long[][] ZOBRIST = new long[2][64];
+    private static final long ZOBRIST_X_TO_MOVE;
+    static {
+        Random random = new Random(460);
+        for (int i = 0; i < 64; i++) {
+            ZOBRIST[0][i] = random.nextLong();
+            ZOBRIST[1][i] = random.nextLong();
+        }
+        ZOBRIST_X_TO_MOVE = random.nextLong();
+    }
+
+    protected final Geometry geometry;
+    protected final char[] spots;
+    protected long x, o;
+    protected boolean xToMove;
+    protected long hash;
+    protected int winner;
+    // Moves played on this board, for lastMove().
+    protected final int[] history;
+    protected int historyCount;
+    protected int firstMove;
+
+    /**
+     * Sets up a board from a row-major array of X, O and ' ' (open) spots.
+     * The player to move is worked out from the number of marks.
+     *
+     * @param geometry The shape of the board.
+     * @param board The spots; must be geometry.cells long.
+     * @param lastMove The spot taken by the most recent move, or -1.
+     */
+    protected LineBoard(Geometry geometry, char[] board, int lastMove) {
+        this.geometry = geometry;
+        this.spots = new char[geometry.cells];
+        this.history = new int[geometry.cells];
+        this.firstMove = lastMove;
+        for (int i = 0; i < geometry.cells; i++) {
+            spots[i] = board[i];
+            if (board[i] == 'X') {
+                x |= 1L << i;
+                hash ^= ZOBRIST[0][i];
+            } else if (board[i] == 'O') {
+                o |= 1L << i;
+                hash ^= ZOBRIST[1][i];
+            } else {
+                spots[i] = ' ';
+            }
+        }
+        xToMove = Long.bitCount(x) == Long.bitCount(o);
+        if (xToMove) {
+            hash ^= ZOBRIST_X_TO_MOVE;
+        }
+        for (long line : geometry.lines) {
+            if ((x & line) == line) {
+                winner = 1;
+            } else if ((o & line) == line) {
+                winner = -1;
+            }
+        }
+    }
+
+    /**
+     * Makes this board a copy of another board of the same game.
+     */
+    protected void copyFrom(LineBoard other) {
+        System.arraycopy(other.spots, 0, spots, 0, spots.length);
+        System.arraycopy(other.history, 0, history, 0, history.length);
+        x = other.x;
+        o = other.o;
+        xToMove = other.xToMove;
+        hash = other.hash;
+        winner = other.winner;
+        historyCount = other.historyCount;
+        firstMove = other.firstMove;
+    }
+
+    public int cellCount() {
+        return geometry.cells;
+    }
+
+    /**
+     * @return The shape of this board.
+     */
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        long open = ~(x | o) & geometry.full;
+        while (open != 0) {
+            moves[count++] = Long.numberOfTrailingZeros(open);
+            open &= open - 1;
+        }
+        return count;
+    }
+
+    public void makeMove(int move) {
+        long bit = 1L << move;
+        long mine;
+        if (xToMove) {
+            x |= bit;
+            mine = x;
+            spots[move] = 'X';
+            hash ^= ZOBRIST[0][move] ^ ZOBRIST_X_TO_MOVE;
+        } else {
+            o |= bit;
+            mine = o;
+            spots[move] = 'O';
+            hash ^= ZOBRIST[1][move] ^ ZOBRIST_X_TO_MOVE;
+        }
+        // Only lines through the new mark can have been completed.
+        for (long line : geometry.linesThrough[move]) {
+            if ((mine & line) == line) {
+                winner = xToMove ? 1 : -1;
+                break;
+            }
+        }
+        xToMove = !xToMove;
+        history[historyCount++] = move;
+    }
+
+    public void unmakeMove(int move) {
+        long bit = 1L << move;
+        xToMove = !xToMove;
+        if (xToMove) {
+            x &= ~bit;
+            hash ^= ZOBRIST[0][move] ^ ZOBRIST_X_TO_MOVE;
+        } else {
+            o &= ~bit;
+            hash ^= ZOBRIST[1][move] ^ ZOBRIST_X_TO_MOVE;
+        }
+        spots[move] = ' ';
+        // Moves are never made from finished games.
+        winner = 0;
+        historyCount--;
+    }
+
+    public boolean isTerminal() {
+        return winner != 0 || (x | o) == geometry.full;
+    }
+
+    public int utility() {
+        return winner * WIN;
+    }
+
+    public boolean isMax() {
+        return xToMove;
+    }
+
+    public long hash() {
+        return hash;
+    }
+
+    public int lastMove() {
+        return historyCount > 0 ? history[historyCount - 1] : firstMove;
+    }
+
+    public long playerMask(char player) {
+        return player == 'X' ? x : player == 'O' ? o : 0;
+    }
+
+    public long winningSpots(char player) {
+        return player == 'X' ? winningSpots(geometry, x, o) : winningSpots(geometry, o, x);
+    }
+
+    public long forkSpots(char player) {
+        return player == 'X' ? forkSpots(geometry, x, o) : forkSpots(geometry, o, x);
+    }
+
+    /**
+     * Finds the open spots that complete one of a player's win lines.
+     *
+     * @param geometry The shape of the board.
+     * @param mine The player's spots.
+     * @param theirs The opponent's spots.
+     * @return A bit mask of the winning spots.
+     */
+    public static long winningSpots(Geometry geometry, long mine, long theirs) {
+        long spots = 0;
+        for (long line : geometry.lines) {
+            // Exactly one spot of the line is missing, and it's open.
+            long missing = line & ~mine;
+            if ((missing & theirs) == 0 && missing != 0 && (missing & (missing - 1)) == 0) {
+                spots |= missing;
+            }
+        }
+        return spots;
+    }
+
+    /**
+     * Finds the open spots that would give a player two different winning
+     * spots at once.
+     *
+     * @param geometry The shape of the board.
+     * @param mine The player's spots.
+     * @param theirs The opponent's spots.
+     * @return A bit mask of the forking spots.
+     */
+    public static long forkSpots(Geometry geometry, long mine, long theirs) {
+        // Spots on at least two lines that are two marks away from a win.
+        long once = 0, twice = 0;
+        for (long line : geometry.lines) {
+            long missing = line & ~mine;
+            if ((missing & theirs) == 0 && Long.bitCount(missing) == 2) {
+                twice |= once & missing;
+                once |= missing;
+            }
+        }
+
+        // Those lines must leave at least two different spots to win on.
+        long forks = 0;
+        while (twice != 0) {
+            int spot = Long.numberOfTrailingZeros(twice);
+            long bit = twice & -twice;
+            twice &= twice - 1;
+            long wins = 0;
+            for (long line : geometry.linesThrough[spot]) {
+                long missing = line & ~mine;
+                if ((missing & theirs) == 0 && Long.bitCount(missing) == 2) {
+                    wins |= missing & ~bit;
+                }
+            }
+            if ((wins & (wins - 1)) != 0) {
+                forks |= bit;
+            }
+        }
+        return forks;
+    }
+
+    /**
+     * @param spot A spot on the board, starting at 0.
+     * @return X, O or ' ' (open).
+     */
+    public char spot(int spot) {
+        return spots[spot];
+    }
+
+    /**
+     * @return The board as a row-major array of X, O and ' ' characters.
+     */
+    public char[] toCharArray() {
+        return spots.clone();
+    }
+
+    /**
+     * @return A summary of this board, in the same form as the game states'.
+     */
+    public String toString() {
+        return "[\n\tboard: "+ Arrays.toString(spots) +",\n\tplayer: "+
+            (lastMove() < 0 ? '?' : xToMove ? 'O' : 'X') +",\n\tmove: "+ (lastMove() + 1) +"\n]";
+    }
+}
@@ -0,0 +1,211 @@
+// File:   LineEvaluator.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: An evaluation function made of weights for partly filled win lines.
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Evaluates a board from its win lines. Every line is of some kind (for
+ * ExtremeTicTacToe: edge rows and columns, middle rows and columns,
+ * diagonals, and so on), and a line holding marks of only one player is
+ * worth weight[kind][marks] to that player. Lines both players have marked
+ * are worth nothing.
+ *
+ * Weights are read from and written to files of kind.marks=weight lines,
+ * e.g. diagonal.3=40; EvalTuner writes them.
+ */
+public class LineEvaluator {
+    private final LineBoard.Geometry geometry;
+    private final int[] lineKinds;
+    // For each spot, the indexes of the lines through it.
+    private final int[][] linesThrough;
+    private final String[] kindNames;
+    private final int[][] weights;
+    private final int limit;
+
+    /**
+     * @param geometry The geometry of the boards to evaluate.
+     * @param lineKinds The kind of each of the geometry's lines.
+     * @param kindNames The name of each kind, as used in weight files.
+     * @param maxMarks The most marks a line can hold without being won.
+     * @param limit The most an evaluation may be worth either way.
+     */
+    public LineEvaluator(LineBoard.Geometry geometry, int[] lineKinds, String[] kindNames, int maxMarks, int limit) {
+        if (lineKinds.length != geometry.lines.length) {
+            throw new IllegalArgumentException("Need a kind for each of the "+ geometry.lines.length +" lines.");
+        }
+        this.geometry = geometry;
+        this.lineKinds = lineKinds;
+        this.kindNames = kindNames;
+        this.limit = limit;
+        linesThrough = new int[geometry.cells][];
+        for (int spot = 0; spot < geometry.cells; spot++) {
+            int count = 0;
+            for (long line : geometry.lines) {
+                count += (int) (line >>> spot & 1);
+            }
+            linesThrough[spot] = new int[count];
+            count = 0;
+            for (int i = 0; i < geometry.lines.length; i++) {
+                if ((geometry.lines[i] >>> spot & 1) != 0) {
+                    linesThrough[spot][count++] = i;
+                }
+            }
+        }
+        // A won line is never evaluated; it keeps a weight of 0.
+        weights = new int[kindNames.length][maxMarks + 2];
+        for (int kind = 0; kind < kindNames.length; kind++) {
+            for (int marks = 1; marks <= maxMarks; marks++) {
+                weights[kind][marks] = marks * marks;
+            }
+        }
+    }
+
+    /**
+     * Evaluates a board.
+     *
+     * @param x The spots X has taken.
+     * @param o The spots O has taken.
+     * @return A positive value favors X, negative favors O.
+     */
+    public int eval(long x, long o) {
+        int total = 0;
+        for (int i = 0; i < lineKinds.length; i++) {
+            total += lineValue(i, x, o);
+        }
+        return Math.max(-limit, Math.min(limit, total));
+    }
+
+    /**
+     * Evaluates every child of a board at once. The board's own total is
+     * worked out once; each child then only rescores the lines through its
+     * move.
+     *
+     * @param x The spots X has taken.
+     * @param o The spots O has taken.
+     * @param xToMove True if X makes the moves.
+     * @param moves The moves (spots) leading to the children.
+     * @param count The number of moves.
+     * @param values Where to put each child's evaluation.
+     */
+    public void evalChildren(long x, long o, boolean xToMove, int[] moves, int count, int[] values) {
+        int total = 0;
+        for (int i = 0; i < lineKinds.length; i++) {
+            total += lineValue(i, x, o);
+        }
+        for (int i = 0; i < count; i++) {
+            long bit = 1L << moves[i];
+            long childX = xToMove ? x | bit : x;
+            long childO = xToMove ? o : o | bit;
+            int value = total;
+            for (int line : linesThrough[moves[i]]) {
+                value += lineValue(line, childX, childO) - lineValue(line, x, o);
+            }
+            values[i] = Math.max(-limit, Math.min(limit, value));
+        }
+    }
+
+    /**
+     * @return What line i adds to an evaluation.
+     */
+    private int lineValue(int i, long x, long o) {
+        long line = geometry.lines[i];
+        long xs = x & line;
+        long os = o & line;
+        if (os == 0) {
+            return weights[lineKinds[i]][Long.bitCount(xs)];
+        } else if (xs == 0) {
+            return -weights[lineKinds[i]][Long.bitCount(os)];
+        }
+        return 0;
+    }
+
+    /**
+     * @return The number of kinds of lines.
+     */
+    public int getKindCount() {
+        return kindNames.length;
+    }
+
+    /**
+     * @return The most marks a line can hold without being won.
+     */
+    public int getMaxMarks() {
+        return weights[0].length - 2;
+    }
+
+    public int getWeight(int kind, int marks) {
+        return weights[kind][marks];
+    }
+
+    public void setWeight(int kind, int marks, int weight) {
+        weights[kind][marks] = weight;
+    }
+
+    /**
+     * @return The name of a kind of line, as used in weight files.
+     */
+    public String getKindName(int kind) {
+        return kindNames[kind];
+    }
+
+    /**
+     * Reads weights from a file. Weights the file doesn't mention are left
+     * as they are.
+     *
+     * @param file The weight file.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file has a bad key or value.
+     */
+    public void load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.lastIndexOf('.');
+            int kind = -1;
+            for (int i = 0; i < kindNames.length && dot > 0; i++) {
+                if (kindNames[i].equals(key.substring(0, dot))) {
+                    kind = i;
+                }
+            }
+            int marks;
+            int weight;
+            try {
+                marks = Integer.parseInt(key.substring(dot + 1));
+                weight = Integer.parseInt(properties.getProperty(key).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad weight: "+ key +"="+ properties.getProperty(key));
+            }
+            if (kind < 0 || marks < 1 || marks > getMaxMarks()) {
+                throw new IllegalArgumentException("Bad weight key: "+ key);
+            }
+            weights[kind][marks] = weight;
+        }
+    }
+
+    /**
+     * Writes the weights to a file that load() can read.
+     *
+     * @param file Where to write the weights.
+     * @param comment A line to put at the top of the file.
+     * @throws IOException If the file can't be written.
+     */
+    public void save(Path file, String comment) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write("# "+ comment +"\n");
+            for (int kind = 0; kind < kindNames.length; kind++) {
+                for (int marks = 1; marks <= getMaxMarks(); marks++) {
+                    writer.write(kindNames[kind] +"."+ marks +"="+ weights[kind][marks] +"\n");
+                }
+            }
+        }
+    }
+}
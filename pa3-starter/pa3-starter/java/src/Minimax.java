@@ -7,6 +7,7 @@
 // Added support for depth limiting and alpha-beta pruning.
 // Github copilot was used to help create minValueAlphaBeta and maxValueAlphaBeta.
 
+import java.util.ArrayList;
 
 /**
  * Performs Minimax to find the action with the best outcome for a
@@ -15,6 +16,8 @@
 public class Minimax  {
     private static boolean useAlphaBeta = false;
     private static long stateCount = 0;
+    private static SearchTrace trace = null;
+    private static SearchTreeWriter tree = null;
 
     public static void setAlphaBeta(boolean useAlphaBeta) {
         Minimax.useAlphaBeta = useAlphaBeta;
@@ -26,100 +29,150 @@ public class Minimax  {
     public static long getStateCount() {
         return stateCount;
     }
+
     /**
-     * Determines the action/move that the next player should make given the
-     * current state of the game by running Minimax with the state as the root.
+     * Sends a binary record of every node searched to the given trace; use
+     * null (the default) to turn tracing off.
      * 
-     * @param state The state to find the next move for.
-     * @param depth The depth at which to stop in depth-limited Minimax; use -1
-     *              to conduct a full Minimax search.
-     * @param loggingDepth How many levels down the Minimax tree to display info
-     *                    for; use 0 to disable this feature. 
-     * @param loggingPrefix Used in conjunction with logging; use this to provide 
-     *               additional spacing for each subsequent level of the Minimax
-     *               tree for easier reading.
-     * @return The action/move the next player should make and the expected
-     *         utility of that move.
+     * @param trace The trace to write to, or null.
      */
-    public ActionUtility value(GameState state, int depth, int loggingDepth, String loggingPrefix, double alpha, double beta) {
-        stateCount++; // Increment the state count
-    
-        if (stateCount % 10000000 == 0) {
-            System.out.println("States expanded: " + stateCount);
-        }
-    
-        if (state.isTerminal()) {
-            return state.getActionUtility();
-    
-        } else if (depth == 0) {
-            // Return the result of the evaluation function.
-            return state.getActionEval();
-    
-        } else if (state.isMax()) {
-            if (useAlphaBeta) {
-                return maxValueAlphaBeta(state, depth, loggingDepth, loggingPrefix, alpha, beta);
-            } else {
-                return maxValue(state, depth, loggingDepth, loggingPrefix);
-            }
-    
-        } else {
-            if (useAlphaBeta) {
-                return minValueAlphaBeta(state, depth, loggingDepth, loggingPrefix, alpha, beta);
-            } else {
-                return minValue(state, depth, loggingDepth, loggingPrefix);
-            }
+    public static void setTrace(SearchTrace trace) {
+        Minimax.trace = trace;
+    }
+
+    /**
+     * Exports every node searched, down to the writer's maximum ply, to the
+     * given tree file; use null (the default) to turn exporting off.
+     * 
+     * @param tree The writer to export to, or null.
+     */
+    public static void setTree(SearchTreeWriter tree) {
+        Minimax.tree = tree;
+    }
+
+    // Engine for boards that support it; null to use a new one per search.
+    private SearchEngine engine;
+
+    /**
+     * Has this Minimax search SearchBoardStates with the given engine rather
+     * than a new one each move, so whatever the engine keeps between searches
+     * (such as its transposition table) carries over from move to move.
+     * 
+     * @param engine The engine to use, or null.
+     */
+    public void setEngine(SearchEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * @return The engine set with setEngine(), or null.
+     */
+    public SearchEngine getEngine() {
+        return engine;
+    }
+
+    // Budget for searches of SearchBoardStates; null to search to the depth.
+    private Profile profile;
+
+    /**
+     * Has this Minimax search SearchBoardStates within a profile's budget
+     * rather than to a fixed depth. Logged, traced and exported searches
+     * still go to a fixed depth, the profile's depth limit.
+     * 
+     * @param profile The profile to use, or null.
+     */
+    public void setProfile(Profile profile) {
+        this.profile = profile;
+    }
+
+    // The line the last search expects, starting with its move.
+    private int[] line = new int[0];
+
+    /**
+     * @return The line of play the last search expects, starting with the
+     *         move it chose, with spots starting at 1; empty for searches
+     *         that didn't go through SearchEngine (logged, traced or
+     *         exported ones).
+     */
+    public int[] getLine() {
+        int[] spots = new int[line.length];
+        for (int i = 0; i < line.length; i++) {
+            spots[i] = line[i] + 1;
         }
+        return spots;
     }
 
+    // Names of the node kinds, as logged, by SearchTrace.KIND_*.
+    private static final String[] KIND_NAMES =
+        {"maxValue", "minValue", "maxValueAlphaBeta", "minValueAlphaBeta"};
+
+    // What the search in progress does, fixed by configure() when it starts
+    // so the kernel doesn't look any of it up at every node.
+    private boolean pruning;
+    private SearchTrace activeTrace;
+    private SearchTreeWriter activeTree;
+    // Nodes down to this ply go through observe(); -1 if none do.
+    private int observedPly = -1;
+    // Whether the most recently finished node pruned any of its successors.
+    private boolean lastCutoff;
+
     /**
-     * Selects the move that maximizes utility over the successors of the
-     * given state.
+     * Runs a search from the root for the player to move in the given state.
+     * This is the entry point the games should use; it wraps value() with the
+     * bookkeeping (such as the Flight Recorder events) that only makes sense
+     * once per move. States that wrap a SearchBoard are searched by the
+     * faster SearchEngine.
      * 
      * @param state The state to find the next move for.
      * @param depth The depth at which to stop in depth-limited Minimax; use -1
      *              to conduct a full Minimax search.
      * @param loggingDepth How many levels down the Minimax tree to display info
      *                    for; use 0 to disable this feature. 
-     * @param loggingPrefix Used in conjunction with logging; use this to provide 
-     *               additional spacing for each subsequent level of the Minimax
-     *               tree for easier reading.
      * @return The action/move the next player should make and the expected
      *         utility of that move.
      */
-    public ActionUtility maxValue(GameState state, 
-            int depth, int loggingDepth, String loggingPrefix){
+    public ActionUtility search(GameState state, int depth, int loggingDepth) {
+        // Boards that can be searched in place don't need to go through the
+        // GameState interface unless one of its debugging features is on.
+        if (state instanceof SearchBoardState && loggingDepth <= 0 && trace == null && tree == null) {
+            SearchBoardState boardState = (SearchBoardState) state;
+            SearchEngine searcher = engine != null ? engine : new SearchEngine(useAlphaBeta);
+            SearchResult result = profile != null ? searcher.search(boardState.getBoard(), profile)
+                : searcher.search(boardState.getBoard(), depth);
+            stateCount += result.nodes;
+            line = result.line;
+            return new SearchBoardState.MoveUtility(result.move + 1, result.score);
+        }
 
-        ActionUtility actionUtility = null;
-        
-        for(GameState successor : state.successors()){
-            ActionUtility successorActionUtility = 
-                value(successor, depth-1, loggingDepth-1, loggingPrefix+" ", 0,0);
+        // Events are only created once Flight Recorder has started; the first
+        // one sets it up, which would otherwise slow down the first move.
+        SearchEvents.RootSearch event = SearchEvents.recorderStarted() ? new SearchEvents.RootSearch() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long startCount = stateCount;
+        line = new int[0];
 
-            // Logging.
-            if(loggingDepth > 0) {
-                System.out.println(loggingPrefix +"maxValue: "+ 
-                    successor.toString().replaceAll("\n", "\n"+loggingPrefix) +"\n"+ 
-                    loggingPrefix +successorActionUtility.toString().
-                    replaceAll("\n", "\n"+loggingPrefix));
-            }   
+        ActionUtility actionUtility = value(state, depth, loggingDepth, "", 
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
 
-            if(actionUtility == null || 
-                    successorActionUtility.getUtility() > actionUtility.getUtility()) {
-                actionUtility = successor.getActionUtility(successorActionUtility.getUtility());
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.depth = depth;
+                event.nodes = stateCount - startCount;
+                event.score = actionUtility.getUtility();
+                event.bestMove = actionUtility.getMove();
+                event.alphaBeta = useAlphaBeta;
+                event.commit();
             }
         }
-        
-        // Logging.
-        if(loggingDepth > 0) {
-            System.out.println(loggingPrefix+ "maxValue: returning "+ 
-                actionUtility.toString().replaceAll("\n", "\n"+loggingPrefix));
-        }
-
         return actionUtility;
     }
+
     /**
-     * Selects the move that maximizes utility over the successors of the
-     * given state using alpha-beta pruning.
+     * Determines the action/move that the next player should make given the
+     * current state of the game by running Minimax with the state as the root.
      * 
      * @param state The state to find the next move for.
      * @param depth The depth at which to stop in depth-limited Minimax; use -1
@@ -129,128 +182,184 @@ public class Minimax  {
      * @param loggingPrefix Used in conjunction with logging; use this to provide 
      *               additional spacing for each subsequent level of the Minimax
      *               tree for easier reading.
-     * @param alpha The current best value for the maximizing player.
-     * @param beta The current best value for the minimizing player.
+     * @param alpha The lowest utility the maximizing player cares about.
+     * @param beta The highest utility the minimizing player cares about.
      * @return The action/move the next player should make and the expected
      *         utility of that move.
      */
-    public ActionUtility maxValueAlphaBeta(GameState state, int depth, int loggingDepth, String loggingPrefix, double alpha, double beta) {
-        ActionUtility actionUtility = null;
-    
-        for (GameState successor : state.successors()) {
-            ActionUtility successorActionUtility = value(successor, depth - 1, loggingDepth - 1, loggingPrefix + " ", alpha, beta);
-    
-            // Logging...
-            if(loggingDepth > 0) {
-                System.out.println(loggingPrefix +"maxValueAlphaBeta: "+ 
-                    successor.toString().replaceAll("\n", "\n"+loggingPrefix) +"\n"+ 
-                    loggingPrefix +successorActionUtility.toString().
-                    replaceAll("\n", "\n"+loggingPrefix));
-            }   
-    
-            if (actionUtility == null || successorActionUtility.getUtility() > actionUtility.getUtility()) {
-                actionUtility = successor.getActionUtility(successorActionUtility.getUtility());
-            }
+    public ActionUtility value(GameState state, int depth, int loggingDepth, String loggingPrefix, double alpha, double beta) {
+        configure();
+        return negamax(state, depth, 0, loggingDepth, loggingPrefix, alpha, beta);
+    }
+
+    /**
+     * Fixes what the search about to start does: whether it prunes, where it
+     * traces and exports to, and how deep the nodes go that are exported or
+     * timed for the slow subtree event.
+     */
+    private void configure() {
+        pruning = useAlphaBeta;
+        activeTrace = trace;
+        activeTree = tree;
+        observedPly = -1;
+        if (tree != null) {
+            observedPly = tree.getMaxPly();
+        }
+        // Checked once per search; the event is only recorded while a
+        // recording has it enabled.
+        if (SearchEvents.recorderStarted() && new SearchEvents.Subtree().isEnabled()) {
+            observedPly = Math.max(observedPly, SearchEvents.Subtree.MAX_PLY);
+        }
+    }
+
+    /**
+     * Counts a state and finds its value; the search's one recursive
+     * method.
+     * 
+     * @param ply How far the state is below the root.
+     * @param alpha The lowest utility the maximizing player cares about.
+     * @param beta The highest utility the minimizing player cares about.
+     * @return The move to the best successor and its utility, or the state's
+     *         own utility or evaluation if it isn't expanded.
+     */
+    private ActionUtility negamax(GameState state, int depth, int ply, int loggingDepth, String loggingPrefix, double alpha, double beta) {
+        stateCount++; // Increment the state count
     
-            // Alpha-beta pruning.
-            if (actionUtility.getUtility() >= beta) {
+        if (stateCount % 10000000 == 0) {
+            System.out.println("States expanded: " + stateCount);
+        }
+        if (ply <= observedPly) {
+            return observe(state, depth, ply, loggingDepth, loggingPrefix, alpha, beta);
+        }
+        return expand(state, depth, ply, loggingDepth, loggingPrefix, alpha, beta);
+    }
+
+    /**
+     * Expands a state near the root that is exported to the tree file or
+     * timed for the slow subtree event.
+     */
+    private ActionUtility observe(GameState state, int depth, int ply, int loggingDepth, String loggingPrefix, double alpha, double beta) {
+        if (activeTree != null && ply <= activeTree.getMaxPly()) {
+            long startCount = stateCount;
+            ActionUtility actionUtility = expand(state, depth, ply, loggingDepth, loggingPrefix, alpha, beta);
+            activeTree.record(state, ply, depth, stateCount - startCount + 1,
+                pruning ? alpha : Double.NEGATIVE_INFINITY, 
+                pruning ? beta : Double.POSITIVE_INFINITY,
+                actionUtility.getUtility(), lastCutoff);
+            return actionUtility;
+        }
+
+        // Both begin() and commit() are no-ops unless a recording enabled
+        // the event.
+        if (ply > 0 && ply <= SearchEvents.Subtree.MAX_PLY && SearchEvents.recorderStarted()) {
+            SearchEvents.Subtree event = new SearchEvents.Subtree();
+            if (event.isEnabled()) {
+                event.begin();
+                long startCount = stateCount;
+                ActionUtility actionUtility = expand(state, depth, ply, loggingDepth, loggingPrefix, alpha, beta);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.ply = ply;
+                    event.move = state.getMove();
+                    event.nodes = stateCount - startCount;
+                    event.score = actionUtility.getUtility();
+                    event.commit();
+                }
                 return actionUtility;
             }
-            alpha = Math.max(alpha, actionUtility.getUtility());
         }
-    
-        return actionUtility;
-    }    
+        return expand(state, depth, ply, loggingDepth, loggingPrefix, alpha, beta);
+    }
+
     /**
-     * Selects the move that minimizes utility over the successors of the
-     * given state.
+     * Evaluates a state that has already been counted by negamax(): terminal
+     * and horizon states are scored directly, and others take the best of
+     * their successors for the player to move.
      * 
-     * @param state The state to find the next move for.
-     * @param depth The depth at which to stop in depth-limited Minimax; use -1
-     *              to conduct a full Minimax search.
-     * @param loggingDepth How many levels down the Minimax tree to display info
-     *                    for; use 0 to disable this feature. 
-     * @param loggingPrefix Used in conjunction with logging; use this to provide 
-     *               additional spacing for each subsequent level of the Minimax
-     *               tree for easier reading.
-     * @return The action/move the next player should make and the expected
-     *         utility of that move.
+     * Both players are handled alike by scoring successors from the mover's
+     * point of view (the utility, negated for the minimizing player) and
+     * keeping the window the same way, so the loop only ever maximizes and
+     * only ever raises its lower bound. Utilities and windows are turned back
+     * to the maximizing player's point of view wherever they leave the
+     * method, so children, logs, traces and exported trees see what they
+     * always have.
      */
-    public ActionUtility minValue(GameState state, 
-        int depth, int loggingDepth, String loggingPrefix){
+    private ActionUtility expand(GameState state, int depth, int ply, int loggingDepth, String loggingPrefix, double alpha, double beta) {
+        lastCutoff = false;
+        if (state.isTerminal()) {
+            return state.getActionUtility();
+        }
+        if (depth == 0) {
+            // Return the result of the evaluation function.
+            return state.getActionEval();
+        }
+
+        boolean max = state.isMax();
+        double sign = max ? 1 : -1;
+        // The window from the mover's point of view.
+        double low = max ? alpha : -beta;
+        double high = max ? beta : -alpha;
+        int kind = pruning ? (max ? SearchTrace.KIND_MAX_ALPHA_BETA : SearchTrace.KIND_MIN_ALPHA_BETA)
+            : (max ? SearchTrace.KIND_MAX : SearchTrace.KIND_MIN);
+        String childPrefix = loggingDepth > 1 ? loggingPrefix + " " : loggingPrefix;
 
-        ActionUtility actionUtility = null;
-        
-        for(GameState successor : state.successors()){
-            ActionUtility successorActionUtility = 
-                value(successor, depth-1, loggingDepth-1, loggingPrefix+" ",0,0);
+        GameState bestSuccessor = null;
+        double best = Double.NEGATIVE_INFINITY;
+        ArrayList<GameState> successors = state.successors();
+        for (int i = 0; i < successors.size(); i++) {
+            GameState successor = successors.get(i);
+            ActionUtility successorActionUtility = negamax(successor, depth - 1, ply + 1, loggingDepth - 1, childPrefix,
+                max ? low : -high, max ? high : -low);
+            double score = sign * successorActionUtility.getUtility();
 
             // Logging.
-            if(loggingDepth > 0) {
-                System.out.println(loggingPrefix +"minValue: "+ 
+            if (loggingDepth > 0) {
+                System.out.println(loggingPrefix + KIND_NAMES[kind] +": "+ 
                     successor.toString().replaceAll("\n", "\n"+loggingPrefix) +"\n"+ 
                     loggingPrefix + successorActionUtility.toString().
                     replaceAll("\n", "\n"+loggingPrefix));
             }
 
-            if(actionUtility == null || 
-                    successorActionUtility.getUtility() < actionUtility.getUtility()){
-                actionUtility = successor.getActionUtility(successorActionUtility.getUtility());
+            if (bestSuccessor == null || score > best) {
+                bestSuccessor = successor;
+                best = score;
             }
-        }
-        
-        // Logging.
-        if(loggingDepth > 0)
-            System.out.println(loggingPrefix +"minValue: returning "+ 
-                actionUtility.toString().replaceAll("\n", "\n"+loggingPrefix));
-  
-        return actionUtility;
-    }
-    /**
-     * Selects the move that minimizes utility over the successors of the
-     * given state using alpha-beta pruning.
-     * 
-     * @param state The state to find the next move for.
-     * @param depth The depth at which to stop in depth-limited Minimax; use -1
-     *              to conduct a full Minimax search.
-     * @param loggingDepth How many levels down the Minimax tree to display info
-     *                    for; use 0 to disable this feature. 
-     * @param loggingPrefix Used in conjunction with logging; use this to provide 
-     *               additional spacing for each subsequent level of the Minimax
-     *               tree for easier reading.
-     * @param alpha The current best value for the maximizing player.
-     * @param beta The current best value for the minimizing player.
-     * @return The action/move the next player should make and the expected
-     *         utility of that move.
-     */
-    public ActionUtility minValueAlphaBeta(GameState state, int depth, int loggingDepth, String loggingPrefix, double alpha, double beta) {
-        ActionUtility actionUtility = null;
-    
-        for (GameState successor : state.successors()) {
-            ActionUtility successorActionUtility = value(successor, depth - 1, loggingDepth - 1, loggingPrefix + " ", alpha, beta);
-    
-            // Logging...
-            if(loggingDepth > 0) {
-                System.out.println(loggingPrefix +"minValueAlphaBeta: "+ 
-                    successor.toString().replaceAll("\n", "\n"+loggingPrefix) +"\n"+ 
-                    loggingPrefix +successorActionUtility.toString().
-                    replaceAll("\n", "\n"+loggingPrefix));
-            }   
-    
-            if (actionUtility == null || successorActionUtility.getUtility() < actionUtility.getUtility()) {
-                actionUtility = successor.getActionUtility(successorActionUtility.getUtility());
+
+            if (!pruning) {
+                if (activeTrace != null) {
+                    activeTrace.record(ply + 1, kind, successor.getMove(),
+                        Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, successorActionUtility.getUtility());
+                }
+                continue;
             }
-    
+
             // Alpha-beta pruning.
-            if (actionUtility.getUtility() <= alpha) {
-                return actionUtility;
+            boolean cutoff = best >= high;
+            if (activeTrace != null) {
+                activeTrace.record(ply + 1, kind | (cutoff ? SearchTrace.CUTOFF : 0), successor.getMove(),
+                    max ? low : -high, max ? high : -low, successorActionUtility.getUtility());
             }
-            beta = Math.min(beta, actionUtility.getUtility());
+            if (cutoff) {
+                lastCutoff = true;
+                return bestSuccessor.getActionUtility(sign * best);
+            }
+            low = Math.max(low, best);
         }
-    
-        return actionUtility;
-    }
 
+        ActionUtility actionUtility = bestSuccessor.getActionUtility(sign * best);
+        if (!pruning) {
+            // Logging.
+            if (loggingDepth > 0) {
+                System.out.println(loggingPrefix + KIND_NAMES[kind] +": returning "+ 
+                    actionUtility.toString().replaceAll("\n", "\n"+loggingPrefix));
+            }
+            if (activeTrace != null) {
+                activeTrace.record(ply, kind | SearchTrace.RETURN, actionUtility.getMove(),
+                    Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, actionUtility.getUtility());
+            }
+        }
 
-    
-}
\ No newline at end of file
+        lastCutoff = false;
+        return actionUtility;
+    }
+}
@@ -0,0 +1,210 @@
+// File:   MovePicker.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Hands the search its moves one at a time, most promising first.
+
+/**
+ * Hands out the moves of a node in stages, so a node that cuts off early
+ * never pays for ordering (or even generating) the moves it doesn't search:
+ *
+ *  1. the move the transposition table (or the expected line) suggests;
+ *  2. moves that win on the spot;
+ *  3. moves that block a win of the opponent's;
+ *  4. everything else, generated only now and handed out best first: by
+ *     the lines through the spot still open to the player to move (each
+ *     worth one more than the marks already in it), with history breaking
+ *     ties. When the children are about to be evaluated anyway, their
+ *     evaluations are made here, all at once, but don't change the order;
+ *     ordering by them alone lost more to worse cutoffs than batching saved.
+ *
+ * Every move is handed out once. SearchContext keeps one picker per ply.
+ */
+public class MovePicker {
+    /** value() of a move with no evaluation. */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    // Stages, in order.
+    private static final int FIRST = 0, FIND_WINS = 1, WINS = 2, FIND_BLOCKS = 3, BLOCKS = 4,
+        GENERATE = 5, QUIET = 6;
+
+    private final int[] moves;
+    private final long[] scores;
+    private final int[] values;
+    private SearchBoard board;
+    private long allowed;
+    private long handedOut;
+    private long pending;
+    private int firstMove;
+    private int[] history;
+    private boolean sort;
+    private boolean evalChildren;
+    private int stage;
+    private int count;
+    private int index;
+    private int value;
+    private boolean quiet;
+
+    /**
+     * @param cells The number of spots on the board.
+     */
+    public MovePicker(int cells) {
+        moves = new int[cells];
+        scores = new long[cells];
+        values = new int[cells];
+    }
+
+    /**
+     * Starts handing out the moves of a board.
+     *
+     * @param board The board; it must be left as it is between calls to
+     *              next().
+     * @param allowed The spots that may be handed out, as a mask.
+     * @param firstMove The move to hand out first, or -1.
+     * @param history How often each move has caused a cutoff, for the
+     *                player to move, or null to not use history.
+     * @param sort False to hand the moves after the first out in the
+     *             board's own order, unsorted and unstaged.
+     * @param evalChildren True to evaluate the children of the moves that
+     *                     reach the last stage (see value()).
+     */
+    public void start(SearchBoard board, long allowed, int firstMove, int[] history,
+            boolean sort, boolean evalChildren) {
+        this.board = board;
+        this.allowed = allowed;
+        this.firstMove = firstMove;
+        this.history = history;
+        this.sort = sort;
+        this.evalChildren = evalChildren;
+        handedOut = 0;
+        count = 0;
+        index = 0;
+        stage = FIRST;
+        value = NO_VALUE;
+    }
+
+    /**
+     * @return The next move, or -1 once every move has been handed out.
+     */
+    public int next() {
+        value = NO_VALUE;
+        quiet = false;
+        switch (stage) {
+            case FIRST:
+                stage = sort ? FIND_WINS : GENERATE;
+                if (firstMove >= 0 && (allowed & ~taken() & 1L << firstMove) != 0) {
+                    handedOut |= 1L << firstMove;
+                    return firstMove;
+                }
+                return next();
+            case FIND_WINS:
+                pending = board.winningSpots(board.isMax() ? 'X' : 'O');
+                stage = WINS;
+                return next();
+            case FIND_BLOCKS:
+                pending = board.winningSpots(board.isMax() ? 'O' : 'X');
+                stage = BLOCKS;
+                return next();
+            case WINS:
+            case BLOCKS:
+                pending &= allowed & ~handedOut;
+                if (pending != 0) {
+                    int move = Long.numberOfTrailingZeros(pending);
+                    handedOut |= 1L << move;
+                    return move;
+                }
+                stage = stage == WINS ? FIND_BLOCKS : GENERATE;
+                return next();
+            case GENERATE:
+                generate();
+                stage = QUIET;
+                return next();
+            default:
+                if (index >= count) {
+                    return -1;
+                }
+                if (sort) {
+                    // Selection sort, one move at a time; the board's own
+                    // order breaks ties.
+                    int best = index;
+                    for (int i = index + 1; i < count; i++) {
+                        if (scores[i] > scores[best]) {
+                            best = i;
+                        }
+                    }
+                    swap(index, best);
+                }
+                value = evalChildren ? values[index] : NO_VALUE;
+                quiet = true;
+                return moves[index++];
+        }
+    }
+
+    /**
+     * @return The evaluation of the child the last move leads to, for X, if
+     *         it was made while picking, else NO_VALUE.
+     */
+    public int value() {
+        return value;
+    }
+
+    /**
+     * @return True if the last move was handed out in the last stage: not
+     *         the first move, a win or a block.
+     */
+    public boolean isQuiet() {
+        return quiet;
+    }
+
+    private long taken() {
+        return board.playerMask('X') | board.playerMask('O');
+    }
+
+    /**
+     * Generates and scores the moves not yet handed out.
+     */
+    private void generate() {
+        int generated = board.generateMoves(moves);
+        count = 0;
+        index = 0;
+        for (int i = 0; i < generated; i++) {
+            int move = moves[i];
+            if ((allowed & ~handedOut & 1L << move) != 0) {
+                moves[count++] = move;
+            }
+        }
+        if (evalChildren) {
+            board.evalChildren(moves, count, values);
+        }
+        if (!sort) {
+            return;
+        }
+
+        LineBoard.Geometry geometry = board instanceof LineBoard ? ((LineBoard) board).getGeometry() : null;
+        long mine = board.playerMask(board.isMax() ? 'X' : 'O');
+        long theirs = board.playerMask(board.isMax() ? 'O' : 'X');
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            long score = 0;
+            if (geometry != null) {
+                for (long line : geometry.linesThrough[move]) {
+                    if ((line & theirs) == 0) {
+                        score += 1 + Long.bitCount(line & mine);
+                    }
+                }
+            }
+            scores[i] = history != null ? score << 32 | history[move] : score;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+        long score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+        int child = values[i];
+        values[i] = values[j];
+        values[j] = child;
+    }
+}
@@ -0,0 +1,151 @@
+// File:   PersistentCache.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: A transposition cache kept in a file, so it lasts from run to run.
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A transposition cache in a memory-mapped file. Entries are laid out like
+ * TranspositionTable's (the hash xor'ed with the data word, then the data
+ * word), so an entry torn by a crash or by two threads writing at once
+ * reads as missing. The file is mapped rather than read, so opening it
+ * costs nothing however large it is; pages come in from disk as positions
+ * are looked up.
+ *
+ * Only results that hold whatever the evaluation function, profile or
+ * depth limit (proven wins and losses, and values from full searches)
+ * belong in the cache; SearchEngine only stores those.
+ *
+ * One process at a time may write to a cache file. Whoever opens it first
+ * holds a lock on it until close(); anyone else gets a read-only cache.
+ */
+public class PersistentCache implements Closeable {
+    public static final int MAGIC = 0x54545443; // "TTTC"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+    public static final int ENTRY_SIZE = 16;
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final int mask;
+    private long stores;
+
+    /**
+     * Opens a cache file, creating it if it doesn't exist.
+     *
+     * @param path The cache file.
+     * @param geometry The geometry of the game; a file made for another game
+     *                 is rejected.
+     * @param bits A new file holds 2^bits entries; an existing one keeps its
+     *             own size.
+     * @throws IOException If the file can't be opened or isn't a cache for
+     *                     this game.
+     */
+    public PersistentCache(Path path, LineBoard.Geometry geometry, int bits) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            lock = channel.tryLock();
+            long size = channel.size();
+            long signature = signature(geometry);
+            if (size == 0) {
+                if (lock == null) {
+                    throw new IOException(path +" is being created by another process.");
+                }
+                size = HEADER_SIZE + ((long) ENTRY_SIZE << bits);
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, bits).putLong(16, signature);
+            } else if (size < HEADER_SIZE) {
+                throw new IOException(path +" is not a search cache.");
+            } else {
+                buffer = channel.map(lock != null ? FileChannel.MapMode.READ_WRITE :
+                    FileChannel.MapMode.READ_ONLY, 0, size);
+                bits = buffer.getInt(8);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || bits < 0 || bits > 26 ||
+                        size != HEADER_SIZE + ((long) ENTRY_SIZE << bits)) {
+                    throw new IOException(path +" is not a search cache.");
+                }
+                if (buffer.getLong(16) != signature) {
+                    throw new IOException(path +" is a search cache for a different game.");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+     * @return A number that identifies a game by its board and win lines.
+     */
+    private static long signature(LineBoard.Geometry geometry) {
+        long signature = geometry.width * 31L + geometry.height;
+        for (long line : geometry.lines) {
+            signature = (signature ^ line) * 0x9E3779B97F4A7C15L;
+        }
+        return signature;
+    }
+
+    /**
+     * @return True if this process may store to the cache.
+     */
+    public boolean isWritable() {
+        return lock != null;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key The board's hash.
+     * @return The entry's data word (see TranspositionTable), or 0 if the
+     *         position isn't stored.
+     */
+    public long probe(long key) {
+        int offset = HEADER_SIZE + ((int) key & mask) * ENTRY_SIZE;
+        long entry = buffer.getLong(offset + 8);
+        return (buffer.getLong(offset) ^ entry) == key ? entry : 0;
+    }
+
+    /**
+     * Stores a result, if this process may write to the cache.
+     *
+     * @param key The board's hash.
+     * @param entry The data word, packed as TranspositionTable packs it.
+     */
+    public void store(long key, long entry) {
+        if (lock == null) {
+            return;
+        }
+        int offset = HEADER_SIZE + ((int) key & mask) * ENTRY_SIZE;
+        buffer.putLong(offset, key ^ entry);
+        buffer.putLong(offset + 8, entry);
+        stores++;
+    }
+
+    /**
+     * @return The number of entries stored since the cache was opened.
+     */
+    public long getStoreCount() {
+        return stores;
+    }
+
+    /**
+     * Writes the cache out to disk and closes the file.
+     */
+    public void close() throws IOException {
+        if (lock != null) {
+            buffer.force();
+            lock.release();
+        }
+        channel.close();
+    }
+}
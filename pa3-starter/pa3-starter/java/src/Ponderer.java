@@ -0,0 +1,160 @@
+// File:   Ponderer.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Searches the opponent's likely replies while they think about their move.
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thinks on the opponent's time. Once the computer has moved, a Ponderer
+ * searches the computer's answer to each of the opponent's replies on a
+ * background thread, most likely replies first, filling a transposition
+ * table as it goes. When the real reply arrives the pondering is stopped; if
+ * that reply was already searched its answer is ready, and if not the
+ * search that follows still starts with a warm table.
+ *
+ * The pondering is done by a copy of the computer's own engine, searching
+ * with the same settings and within the same profile, so a pondered answer
+ * is the one the computer's own search would have found.
+ *
+ * A Ponderer is good for one turn. The engine's table must not be searched
+ * by anything else until stop() returns.
+ */
+public class Ponderer {
+    private final SearchBoard board;
+    private final int depth;
+    private final Profile profile;
+    private final SearchEngine engine;
+    private final TranspositionTable table;
+    private final SearchResult[] results;
+    private final List<List<SearchResult>> lines;
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    /**
+     * @param board The board as the opponent sees it; it's copied, so the
+     *              caller may go on to change it.
+     * @param engine The computer's engine; pondering uses a copy of it, and
+     *               fills its table.
+     * @param depth The depth the computer searches to, if it has no profile.
+     * @param profile The computer's profile, or null to search to the depth.
+     */
+    public Ponderer(SearchBoard board, SearchEngine engine, int depth, Profile profile) {
+        this.board = board.copy();
+        this.depth = depth;
+        this.profile = profile;
+        this.engine = engine.copy();
+        this.table = engine.getTranspositionTable();
+        results = new SearchResult[board.cellCount()];
+        lines = new ArrayList<>(Collections.nCopies(board.cellCount(), (List<SearchResult>) null));
+        thread = new Thread(this::ponder, "ponder");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts pondering in the background.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops pondering and waits for the background thread to finish, after
+     * which the table may be used again.
+     */
+    public void stop() {
+        stopped = true;
+        engine.stop();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param move The opponent's reply (0-based).
+     * @return The computer's answer to the reply, or null if pondering was
+     *         stopped before the reply was searched.
+     */
+    public SearchResult resultFor(int move) {
+        return results[move];
+    }
+
+    /**
+     * @param move The opponent's reply (0-based).
+     * @return The computer's best answers to the reply, best first, as
+     *         SearchEngine.getLines() gives them; null if the reply wasn't
+     *         searched.
+     */
+    public List<SearchResult> linesFor(int move) {
+        return lines.get(move);
+    }
+
+    /**
+     * @return The number of states pondering has expanded.
+     */
+    public long getStateCount() {
+        return engine.getStateCount();
+    }
+
+    private void ponder() {
+        int[] replies = new int[board.cellCount()];
+        int count = orderReplies(replies);
+        for (int i = 0; i < count && !stopped; i++) {
+            int reply = replies[i];
+            board.makeMove(reply);
+            if (!board.isTerminal()) {
+                SearchResult result = profile != null ? engine.search(board, profile)
+                    : engine.search(board, depth);
+                // A profile search cut short by stop() still returns a
+                // move, but not the one a full budget would have found.
+                if (result != null && !stopped) {
+                    results[reply] = result;
+                    lines.set(reply, engine.getLines());
+                }
+            }
+            board.unmakeMove(reply);
+        }
+    }
+
+    /**
+     * Puts the opponent's replies in the order they should be pondered: the
+     * reply the computer's own search expected first, then the rest from best
+     * to worst for the opponent by the evaluation function.
+     *
+     * @param replies Where to put the replies.
+     * @return The number of replies.
+     */
+    private int orderReplies(int[] replies) {
+        int count = board.generateMoves(replies);
+        int[] scores = new int[count];
+        for (int i = 0; i < count; i++) {
+            board.makeMove(replies[i]);
+            scores[i] = board.isTerminal() ? board.utility() : board.eval();
+            board.unmakeMove(replies[i]);
+            if (!board.isMax()) {
+                scores[i] = -scores[i];
+            }
+        }
+
+        int expected = TranspositionTable.move(table.probe(board.hash()));
+        // Insertion sort; there are only a handful of replies.
+        for (int i = 1; i < count; i++) {
+            int reply = replies[i];
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && (reply == expected ||
+                    replies[j] != expected && scores[j] < score)) {
+                replies[j + 1] = replies[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            replies[j + 1] = reply;
+            scores[j + 1] = score;
+        }
+        return count;
+    }
+}
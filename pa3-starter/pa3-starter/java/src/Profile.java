@@ -0,0 +1,140 @@
+// File:   Profile.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: A difficulty profile, given as the resources a search may use.
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A difficulty profile. Rather than a fixed depth, which takes wildly
+ * different amounts of time at different points in a game and on different
+ * machines, a profile is a budget: the engine deepens its search one ply at a
+ * time and plays the best move it has found once the time or node budget
+ * runs out, so every move comes back within maxMillis.
+ *
+ * The built-in profiles can be changed, and new ones added, with a profile
+ * file of name.key=value lines, e.g.:
+ *
+ *     beginner.millis=50
+ *     expert.depth=-1
+ *     expert.millis=5000
+ *     expert.threads=8
+ *
+ * Keys left out keep their built-in values (or, for new profiles, the
+ * advanced ones).
+ */
+public class Profile {
+    public final String name;
+    /** Deepest search to try; -1 for no limit. */
+    public final int maxDepth;
+    /** Time budget per move, in milliseconds; 0 for no limit. */
+    public final long maxMillis;
+    /** States each search thread may expand per move; 0 for no limit. */
+    public final long maxNodes;
+    /** Threads to search with. */
+    public final int maxThreads;
+    /** Largest random amount added to or taken from each evaluation. */
+    public final int evalNoise;
+
+    /**
+     * @param name The profile's name.
+     * @param maxDepth Deepest search to try; -1 for no limit.
+     * @param maxMillis Time budget per move in milliseconds; 0 for no limit.
+     * @param maxNodes States each search thread may expand; 0 for no limit.
+     * @param maxThreads Threads to search with (at least 1).
+     * @param evalNoise Largest random amount added to an evaluation.
+     */
+    public Profile(String name, int maxDepth, long maxMillis, long maxNodes, int maxThreads, int evalNoise) {
+        if (maxThreads < 1 || maxMillis < 0 || maxNodes < 0 || evalNoise < 0) {
+            throw new IllegalArgumentException("Invalid limits for profile "+ name +".");
+        }
+        this.name = name;
+        this.maxDepth = maxDepth;
+        this.maxMillis = maxMillis;
+        this.maxNodes = maxNodes;
+        this.maxThreads = maxThreads;
+        this.evalNoise = evalNoise;
+    }
+
+    /**
+     * @return The built-in profiles, by name.
+     */
+    public static Map<String, Profile> defaults() {
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        Map<String, Profile> profiles = new LinkedHashMap<>();
+        profiles.put("beginner", new Profile("beginner", 5, 100, 100000, 1, 2));
+        profiles.put("intermediate", new Profile("intermediate", 8, 500, 2000000, 1, 0));
+        profiles.put("advanced", new Profile("advanced", 13, 2000, 0, threads, 0));
+        return profiles;
+    }
+
+    /**
+     * Reads a profile file over the built-in profiles.
+     *
+     * @param file The profile file.
+     * @return The built-in profiles as changed by the file, plus any new
+     *         profiles it defines, by name.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file has a bad key or value.
+     */
+    public static Map<String, Profile> load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+
+        Map<String, Profile> profiles = defaults();
+        Profile base = profiles.get("advanced");
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.lastIndexOf('.');
+            if (dot <= 0) {
+                throw new IllegalArgumentException("Bad profile key: "+ key);
+            }
+            String name = key.substring(0, dot);
+            Profile old = profiles.getOrDefault(name, base);
+            long value;
+            try {
+                value = Long.parseLong(properties.getProperty(key).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad value for "+ key +": "+ properties.getProperty(key));
+            }
+
+            Profile profile;
+            switch (key.substring(dot + 1)) {
+                case "depth":
+                    profile = new Profile(name, (int) value, old.maxMillis, old.maxNodes, old.maxThreads, old.evalNoise);
+                    break;
+                case "millis":
+                    profile = new Profile(name, old.maxDepth, value, old.maxNodes, old.maxThreads, old.evalNoise);
+                    break;
+                case "nodes":
+                    profile = new Profile(name, old.maxDepth, old.maxMillis, value, old.maxThreads, old.evalNoise);
+                    break;
+                case "threads":
+                    profile = new Profile(name, old.maxDepth, old.maxMillis, old.maxNodes, (int) value, old.evalNoise);
+                    break;
+                case "noise":
+                    profile = new Profile(name, old.maxDepth, old.maxMillis, old.maxNodes, old.maxThreads, (int) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Bad profile key: "+ key);
+            }
+            profiles.put(name, profile);
+        }
+        return profiles;
+    }
+
+    /**
+     * @return A description of this profile.
+     */
+    public String toString() {
+        return name +" (depth: "+ maxDepth +", millis: "+ maxMillis +", nodes: "+ maxNodes +
+            ", threads: "+ maxThreads +", noise: "+ evalNoise +")";
+    }
+}
@@ -0,0 +1,459 @@
+// File:   ProofNumberSolver.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Proves or disproves that a player can force a win, with df-pn search.
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Answers "can this player force a win from here?" for a LineBoard with a
+ * depth-first proof-number search (df-pn). Rather than look at every move
+ * to a fixed depth, as alpha-beta does, it keeps for every position how
+ * many more positions would at least have to be settled to prove the win
+ * (the proof number) and to disprove it (the disproof number), and always
+ * works on the position that's cheapest to settle. Positions where one
+ * player is about to win, or can no longer lose, narrow a proof down fast,
+ * so it settles positions a full-width search couldn't finish.
+ *
+ * A position is settled straight away (as EndgameSolver does) if the
+ * player to move can win on the spot, faces two threats, or can make two
+ * threats at once; also if the attacker has no line left to win with, or
+ * the board is full. A player facing one threat only considers blocking it.
+ *
+ * Proof and disproof numbers are kept in a transposition table of a fixed
+ * size; when two positions want the same slot, the one that took more work
+ * to find stays. Positions that are pushed out are searched again if
+ * needed, so a small table costs time, not correctness.
+ */
+public class ProofNumberSolver {
+    /** Results of prove(). */
+    public static final int PROVEN = 1, DISPROVEN = -1, UNKNOWN = 0;
+
+    // Larger than any proof or disproof number that matters.
+    private static final int INFINITY = 100000000;
+    // Outcomes of the settling rules, for the player to move.
+    private static final int OPEN = 0, ACHIEVED = 1, FAILED = 2;
+
+    private final int bucketMask;
+    private final long[] keys;
+    private final int[] phis;
+    private final int[] deltas;
+    private final long[] works;
+    private LineBoard.Geometry geometry;
+    private char attacker;
+    private long nodeCount;
+    private long nodeLimit;
+    private long proofSize;
+    private int proofMove;
+    // For each ply of the search, the moves of the position there and the
+    // numbers of the children they lead to.
+    private long[][] childMoves = new long[0][];
+    private int[][] childPhis = new int[0][];
+    private int[][] childDeltas = new int[0][];
+    // The numbers of the position mid() last searched.
+    private int lastPhi;
+    private int lastDelta;
+
+    /**
+     * @param tableBits The table holds 2^tableBits positions.
+     */
+    public ProofNumberSolver(int tableBits) {
+        if (tableBits < 1 || tableBits > 28) {
+            throw new IllegalArgumentException("Table bits must be from 1 to 28: "+ tableBits);
+        }
+        bucketMask = (1 << tableBits - 1) - 1;
+        keys = new long[1 << tableBits];
+        phis = new int[1 << tableBits];
+        deltas = new int[1 << tableBits];
+        works = new long[1 << tableBits];
+    }
+
+    /**
+     * @return The number of positions searched by the last prove().
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return The number of distinct positions in the proof (or disproof)
+     *         the last prove() found: all the defender's moves wherever
+     *         the defender is to move, and one winning move wherever the
+     *         attacker is (the other way around for a disproof), down to
+     *         positions settled on the spot. 0 if it found neither.
+     */
+    public long getProofSize() {
+        return proofSize;
+    }
+
+    /**
+     * @return A move for the player to move that keeps to the proof (wins
+     *         for the attacker, or keeps the attacker from winning for the
+     *         defender), starting at 0; -1 if there's no proof, or every
+     *         move does.
+     */
+    public int getMove() {
+        return proofMove;
+    }
+
+    /**
+     * Finds out whether a player can force a win.
+     *
+     * @param board A non-terminal board; it's left as it was.
+     * @param attacker The player trying to win, 'X' or 'O'.
+     * @param maxNodes The most positions to search; 0 for no limit.
+     * @return PROVEN if the attacker can force a win, DISPROVEN if the other
+     *         player can always draw or win, and UNKNOWN if the search ran
+     *         out of positions first.
+     */
+    public int prove(LineBoard board, char attacker, long maxNodes) {
+        if (geometry != board.getGeometry() || this.attacker != attacker) {
+            // The table only holds proofs for one player in one game.
+            geometry = board.getGeometry();
+            this.attacker = attacker;
+            Arrays.fill(keys, 0);
+            childMoves = new long[geometry.cells][geometry.cells];
+            childPhis = new int[geometry.cells][geometry.cells];
+            childDeltas = new int[geometry.cells][geometry.cells];
+        }
+        nodeCount = 0;
+        nodeLimit = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+        proofSize = 0;
+        proofMove = -1;
+
+        char player = board.isMax() ? 'X' : 'O';
+        long mine = board.playerMask(player);
+        long theirs = board.playerMask(player == 'X' ? 'O' : 'X');
+        boolean attackerToMove = player == attacker;
+        mid(mine, theirs, attackerToMove, 0, INFINITY, INFINITY);
+        int phi = lastPhi;
+        int delta = lastDelta;
+        if (phi != 0 && delta != 0) {
+            return UNKNOWN;
+        }
+        nodeLimit = Long.MAX_VALUE;
+        HashSet<Long> proof = new HashSet<Long>();
+        proofMove = countProof(mine, theirs, attackerToMove, proof);
+        if (proofMove < 0 && phi == 0) {
+            // Settled on the spot, by a win or two threats at once.
+            long wins = LineBoard.winningSpots(geometry, mine, theirs);
+            long threats = LineBoard.winningSpots(geometry, theirs, mine);
+            long forks = threats == 0 ? LineBoard.forkSpots(geometry, mine, theirs) : 0;
+            proofMove = wins != 0 ? Long.numberOfTrailingZeros(wins) :
+                forks != 0 ? Long.numberOfTrailingZeros(forks) : -1;
+        }
+        proofSize = proof.size();
+        // The mover achieving their goal is a proof if they're the attacker.
+        return (phi == 0) == attackerToMove ? PROVEN : DISPROVEN;
+    }
+
+    /**
+     * Settles a position by the rules in the class comment, if they apply.
+     *
+     * @param mine The marks of the player to move.
+     * @param theirs The marks of the other player.
+     * @param attackerToMove True if the player to move is the attacker.
+     * @return ACHIEVED if the player to move gets what they're after (a win
+     *         for the attacker, no loss for the defender), FAILED if not,
+     *         and OPEN if it takes a search to tell.
+     */
+    private int settle(long mine, long theirs, boolean attackerToMove) {
+        long open = ~(mine | theirs) & geometry.full;
+        if (open == 0) {
+            // A draw.
+            return attackerToMove ? FAILED : ACHIEVED;
+        }
+        if (LineBoard.winningSpots(geometry, mine, theirs) != 0) {
+            return ACHIEVED;
+        }
+        long threats = LineBoard.winningSpots(geometry, theirs, mine);
+        if ((threats & (threats - 1)) != 0) {
+            return FAILED;
+        }
+        if (threats == 0 && LineBoard.forkSpots(geometry, mine, theirs) != 0) {
+            return ACHIEVED;
+        }
+        long defender = attackerToMove ? theirs : mine;
+        for (long line : geometry.lines) {
+            if ((line & defender) == 0) {
+                return OPEN;
+            }
+        }
+        // The attacker has nothing left to win with.
+        return attackerToMove ? FAILED : ACHIEVED;
+    }
+
+    /**
+     * @return The moves to search from an unsettled position: the block if
+     *         the player to move faces a threat, otherwise every open spot.
+     */
+    private long moves(long mine, long theirs) {
+        long threats = LineBoard.winningSpots(geometry, theirs, mine);
+        return threats != 0 ? threats : ~(mine | theirs) & geometry.full;
+    }
+
+    /**
+     * Searches a position until its proof number (for the player to move
+     * getting what they're after, phi) or its disproof number (delta)
+     * reaches its threshold, and leaves both in the table and in lastPhi
+     * and lastDelta.
+     *
+     * @param ply How far below the root the position is.
+     */
+    private void mid(long mine, long theirs, boolean attackerToMove, int ply, int phiThreshold, int deltaThreshold) {
+        nodeCount++;
+        long key = hash(mine, theirs);
+        int settled = settle(mine, theirs, attackerToMove);
+        if (settled != OPEN) {
+            lastPhi = settled == ACHIEVED ? 0 : INFINITY;
+            lastDelta = settled == ACHIEVED ? INFINITY : 0;
+            store(key, lastPhi, lastDelta, 1);
+            return;
+        }
+
+        long startCount = nodeCount;
+        long[] moves = childMoves[ply];
+        int[] childPhis = this.childPhis[ply];
+        int[] childDeltas = this.childDeltas[ply];
+        int count = 0;
+        for (long left = moves(mine, theirs); left != 0; left &= left - 1) {
+            long move = left & -left;
+            int slot = find(hash(theirs, mine | move));
+            if (slot >= 0) {
+                childPhis[count] = phis[slot];
+                childDeltas[count] = deltas[slot];
+            } else {
+                int childSettled = settle(theirs, mine | move, !attackerToMove);
+                childPhis[count] = childSettled == ACHIEVED ? 0 : childSettled == FAILED ? INFINITY : 1;
+                childDeltas[count] = childSettled == ACHIEVED ? INFINITY : childSettled == FAILED ? 0 : 1;
+            }
+            moves[count++] = move;
+        }
+        while (true) {
+            // The player to move gets what they're after if some child's
+            // player to move doesn't, and fails if every child's does.
+            int phi = INFINITY;
+            int delta = 0;
+            int best = 0;
+            int secondDelta = INFINITY;
+            for (int i = 0; i < count; i++) {
+                phi = Math.min(phi, childDeltas[i]);
+                delta = Math.min(INFINITY, delta + childPhis[i]);
+                if (i == 0) {
+                    continue;
+                } else if (childDeltas[i] < childDeltas[best]) {
+                    secondDelta = childDeltas[best];
+                    best = i;
+                } else {
+                    secondDelta = Math.min(secondDelta, childDeltas[i]);
+                }
+            }
+            if (phi >= phiThreshold || delta >= deltaThreshold || nodeCount >= nodeLimit) {
+                lastPhi = phi;
+                lastDelta = delta;
+                store(key, phi, delta, nodeCount - startCount + 1);
+                return;
+            }
+            mid(theirs, mine | moves[best], !attackerToMove, ply + 1,
+                Math.min(INFINITY, deltaThreshold - delta + childPhis[best]),
+                Math.min(phiThreshold, secondDelta + 1));
+            // Kept here as well as in the table, in case the table has
+            // already given the child's slot to another position.
+            childPhis[best] = lastPhi;
+            childDeltas[best] = lastDelta;
+        }
+    }
+
+    /**
+     * Adds the positions of a settled position's proof to a set.
+     *
+     * @return The move of the player to move that the proof takes, or -1
+     *         if it takes all of them.
+     */
+    private int countProof(long mine, long theirs, boolean attackerToMove, HashSet<Long> proof) {
+        if (!proof.add(hash(mine, theirs)) || settle(mine, theirs, attackerToMove) != OPEN) {
+            return -1;
+        }
+        long moves = moves(mine, theirs);
+        if (phi(mine, theirs, attackerToMove, true) != 0) {
+            // Every move leaves the other player getting what they're after.
+            for (long left = moves; left != 0; left &= left - 1) {
+                countProof(theirs, mine | (left & -left), !attackerToMove, proof);
+            }
+            return -1;
+        }
+        // One move that leaves the other player failing will do; one the
+        // table already has is taken before any is searched again.
+        for (int pass = 0; pass < 2; pass++) {
+            for (long left = moves; left != 0; left &= left - 1) {
+                long move = left & -left;
+                if (phi(theirs, mine | move, !attackerToMove, pass == 1) == INFINITY) {
+                    countProof(theirs, mine | move, !attackerToMove, proof);
+                    return Long.numberOfTrailingZeros(move);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param search True to search the position again if the table doesn't
+     *               have it settled (it may have been pushed out).
+     * @return The position's proof number, or -1 if it isn't settled.
+     */
+    private int phi(long mine, long theirs, boolean attackerToMove, boolean search) {
+        int settled = settle(mine, theirs, attackerToMove);
+        if (settled != OPEN) {
+            return settled == ACHIEVED ? 0 : INFINITY;
+        }
+        int slot = find(hash(mine, theirs));
+        if (slot >= 0 && (phis[slot] == 0 || deltas[slot] == 0)) {
+            return phis[slot];
+        } else if (!search) {
+            return -1;
+        }
+        mid(mine, theirs, attackerToMove, 0, INFINITY, INFINITY);
+        return lastPhi;
+    }
+
+    /**
+     * @return The slot holding a position, or -1.
+     */
+    private int find(long key) {
+        int slot = ((int) key & bucketMask) << 1;
+        if (keys[slot] == key) {
+            return slot;
+        } else if (keys[slot + 1] == key) {
+            return slot + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Stores a position's numbers in its bucket, over its old numbers or
+     * else over whichever entry took less work to find.
+     */
+    private void store(long key, int phi, int delta, long work) {
+        int slot = ((int) key & bucketMask) << 1;
+        if (keys[slot] != key && (keys[slot + 1] == key || works[slot + 1] < works[slot])) {
+            slot++;
+        }
+        keys[slot] = key;
+        phis[slot] = phi;
+        deltas[slot] = delta;
+        works[slot] = work;
+    }
+
+    /**
+     * Mixes the two masks into a table key; never 0, so 0 can mark an
+     * empty slot.
+     */
+    private static long hash(long mine, long theirs) {
+        long h = mine * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(theirs * 0xC2B2AE3D27D4EB4FL, 31);
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 32;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * Proves or disproves a win on an ExtremeTicTacToe board from the
+     * command line.
+     *
+     * @param args See USAGE.
+     */
+    public static void main(String[] args) {
+        String USAGE = "Usage: java ProofNumberSolver [-h] [-a <X|O>] [-n <maxNodes>] [-b <tableBits>] <board>\n" +
+                "  -h: Display this help message.\n" +
+                "  -a <X|O>: The player to prove a win for. (default: the player to move)\n" +
+                "  -n <maxNodes>: Give up after this many positions. (default: no limit)\n" +
+                "  -b <tableBits>: Keep 2^tableBits positions in the table, from 1 to 28. (default: 20)\n" +
+                "  <board>: The 16 spots, row by row, as X, O or '.', e.g. X....O..........\n";
+
+        char attacker = 0;
+        long maxNodes = 0;
+        int tableBits = 20;
+        String position = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-h")) {
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            if (!args[i].startsWith("-")) {
+                position = args[i];
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for "+ args[i] +".");
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            String value = args[++i];
+            try {
+                switch (args[i - 1]) {
+                    case "-a": attacker = value.length() == 1 ? Character.toUpperCase(value.charAt(0)) : '?'; break;
+                    case "-n": maxNodes = Long.parseLong(value); break;
+                    case "-b": tableBits = Integer.parseInt(value); break;
+                    default:
+                        System.out.println("Unknown option "+ args[i - 1] +".");
+                        System.out.println(USAGE);
+                        System.exit(0);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid value for "+ args[i - 1] +": "+ value);
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+        }
+        if (attacker != 0 && attacker != 'X' && attacker != 'O') {
+            System.out.println("Invalid value for -a; the player must be X or O.");
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+        if (tableBits < 1 || tableBits > 28) {
+            System.out.println("Invalid value for -b: "+ tableBits +"; the table bits must be from 1 to 28.");
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+        if (position == null) {
+            System.out.println("Missing board.");
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+        if (position.length() != 16 || !position.matches("[XO.]+")) {
+            System.out.println("Invalid board: "+ position);
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+
+        ExtremeBoard board = new ExtremeBoard(position.replace('.', ' ').toCharArray(), -1);
+        if (board.isTerminal()) {
+            System.out.println("The game is already over.");
+            System.exit(0);
+        }
+        if (attacker == 0) {
+            attacker = board.isMax() ? 'X' : 'O';
+        }
+        ProofNumberSolver solver = new ProofNumberSolver(tableBits);
+        long start = System.nanoTime();
+        int result = solver.prove(board, attacker, maxNodes);
+        long millis = (System.nanoTime() - start) / 1000000;
+        char defender = attacker == 'X' ? 'O' : 'X';
+        if (result == PROVEN) {
+            System.out.println(attacker +" can force a win.");
+        } else if (result == DISPROVEN) {
+            System.out.println(attacker +" can't force a win; "+ defender +" can hold it off.");
+        } else {
+            System.out.println("Unknown: the search gave up.");
+        }
+        if (result != UNKNOWN) {
+            System.out.println("Proof size: "+ solver.getProofSize() +" positions.");
+            if (solver.getMove() >= 0) {
+                System.out.println("Move for "+ (board.isMax() ? 'X' : 'O') +": "+ (solver.getMove() + 1));
+            }
+        }
+        System.out.println("Positions searched: "+ solver.getNodeCount() +" in "+ millis +" ms.");
+    }
+}
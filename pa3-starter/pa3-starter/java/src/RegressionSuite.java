@@ -0,0 +1,361 @@
+// File:   RegressionSuite.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Checks the engine's moves, scores, states and times on golden positions.
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs every profile on a file of golden positions and checks that the
+ * engine still plays a right move, still finds the same score, and hasn't
+ * become slower: a search expanding more states than its baseline, or a
+ * profile's searches taking more time than theirs, by more than a
+ * tolerance fails the suite. Everything runs offline and, apart from the
+ * times, gives the same answers on every machine.
+ *
+ * Each line of the file is one position:
+ *
+ *     <game> <board> <moves> <result> <profile>=<score>/<states>/<micros> ...
+ *
+ * game is ttt or extreme; board lists the spots row by row as X, O or '.';
+ * moves are the (1-based) moves that keep the best result; result is win,
+ * draw or loss for the player to move, with best play. Each baseline gives
+ * the score (for X) a profile's search found, the states it expanded and
+ * the microseconds it took. Searches use a profile's depth and state limits
+ * on one thread, with no time limit and no eval noise, so they're
+ * repeatable.
+ *
+ * With -u the baselines are written back to the file instead of checked. A
+ * line giving only the game and board gets its moves and result filled in
+ * by solving the position, so new positions can be added that way.
+ */
+public class RegressionSuite {
+    private static final int TABLE_BITS = 20;
+
+    /**
+     * A golden position and what's known about it.
+     */
+    private static class Position {
+        String game;
+        String board;
+        String moves;
+        String result;
+        Map<String, long[]> baselines = new LinkedHashMap<>();
+
+        /**
+         * @return The position as a line of the file.
+         */
+        public String toString() {
+            StringBuilder line = new StringBuilder(game +" "+ board +" "+ moves +" "+ result);
+            for (Map.Entry<String, long[]> baseline : baselines.entrySet()) {
+                long[] b = baseline.getValue();
+                line.append(" "+ baseline.getKey() +"="+ b[0] +"/"+ b[1] +"/"+ b[2]);
+            }
+            return line.toString();
+        }
+    }
+
+    /**
+     * Reads a position from a line of the file.
+     *
+     * @throws IllegalArgumentException If the line isn't a position.
+     */
+    private static Position parse(String line) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length < 2 || fields.length == 3) {
+            throw new IllegalArgumentException("Bad position: "+ line);
+        }
+        Position position = new Position();
+        position.game = fields[0];
+        position.board = fields[1];
+        newBoard(position);
+        if (fields.length > 2) {
+            position.moves = fields[2];
+            position.result = fields[3];
+        }
+        for (int i = 4; i < fields.length; i++) {
+            String[] parts = fields[i].split("[=/]");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Bad baseline: "+ fields[i]);
+            }
+            try {
+                position.baselines.put(parts[0], new long[] {
+                    Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3])});
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad baseline: "+ fields[i]);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @return A new board set up as the position.
+     * @throws IllegalArgumentException If the game or board is wrong.
+     */
+    private static LineBoard newBoard(Position position) {
+        char[] spots = position.board.replace('.', ' ').toCharArray();
+        LineBoard board;
+        if (position.game.equals("ttt") && spots.length == 9) {
+            board = new TicTacToeBoard(spots, -1);
+        } else if (position.game.equals("extreme") && spots.length == 16) {
+            board = new ExtremeBoard(spots, -1);
+        } else {
+            throw new IllegalArgumentException("Bad game or board: "+ position.game +" "+ position.board);
+        }
+        if (board.isTerminal()) {
+            throw new IllegalArgumentException("The game is already over: "+ position.board);
+        }
+        return board;
+    }
+
+    /**
+     * Works out a position's right moves and result by solving it.
+     */
+    private static void solve(Position position) {
+        LineBoard board = newBoard(position);
+        EndgameSolver solver = new EndgameSolver(20);
+        int[] moves = new int[board.cellCount()];
+        int count = board.generateMoves(moves);
+        int[] values = new int[count];
+        int best = -SearchBoard.WIN;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            if (board.isTerminal()) {
+                values[i] = board.isMax() ? -board.utility() : board.utility();
+            } else {
+                values[i] = -solver.solve(board);
+            }
+            board.unmakeMove(moves[i]);
+            best = Math.max(best, values[i]);
+        }
+        List<Integer> right = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (values[i] == best) {
+                right.add(moves[i] + 1);
+            }
+        }
+        right.sort(null);
+        position.moves = right.toString().replaceAll("[\\[\\] ]", "");
+        position.result = best > 0 ? "win" : best < 0 ? "loss" : "draw";
+    }
+
+    /**
+     * Searches a position the way a profile would, best time of a few runs.
+     *
+     * @return The move (0-based), the score, the states expanded and the
+     *         time taken in microseconds.
+     */
+    private static long[] search(Position position, Profile profile, TranspositionTable table, int runs) {
+        Profile repeatable = new Profile(profile.name, profile.maxDepth, 0, profile.maxNodes, 1, 0);
+        long[] outcome = null;
+        for (int run = 0; run < runs; run++) {
+            LineBoard board = newBoard(position);
+            table.clear();
+            SearchEngine engine = new SearchEngine(true);
+            engine.setTranspositionTable(table);
+            engine.setHistory(true);
+            long start = System.nanoTime();
+            SearchResult result = engine.search(board, repeatable);
+            long micros = (System.nanoTime() - start) / 1000;
+            if (outcome == null) {
+                outcome = new long[] {result.move, result.score, result.nodes, micros};
+            } else {
+                outcome[3] = Math.min(outcome[3], micros);
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * Runs the suite.
+     * @param args See USAGE.
+     */
+    public static void main(String[] args) {
+        String USAGE = "Usage: java RegressionSuite [-h] [-u] [-f <profileFile>] [-s <percent>] [-t <percent>] [-r <runs>] [<goldenFile>]\n" +
+                "  -h: Display this help message.\n" +
+                "  -u: Write new baselines to the file instead of checking them.\n" +
+                "  -f <profileFile>: Read profiles from a file. (default: the built-in ones)\n" +
+                "  -s <percent>: Fail if a search expands this many percent more states than its baseline. (default: 10)\n" +
+                "  -t <percent>: Fail if a profile's searches take this many percent longer than their\n" +
+                "                baselines (and at least a millisecond longer). (default: 50)\n" +
+                "  -r <runs>: Time each search this many times and keep the fastest. (default: 3)\n" +
+                "  <goldenFile>: The positions. (default: golden.txt)\n";
+
+        boolean update = false;
+        String profileFile = null;
+        int stateTolerance = 10;
+        int timeTolerance = 50;
+        int runs = 3;
+        String goldenFile = "golden.txt";
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-h")) {
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            if (args[i].equals("-u")) {
+                update = true;
+                continue;
+            }
+            if (!args[i].startsWith("-")) {
+                goldenFile = args[i];
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for "+ args[i] +".");
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            String value = args[++i];
+            try {
+                switch (args[i - 1]) {
+                    case "-f": profileFile = value; break;
+                    case "-s": stateTolerance = Integer.parseInt(value); break;
+                    case "-t": timeTolerance = Integer.parseInt(value); break;
+                    case "-r": runs = Integer.parseInt(value); break;
+                    default:
+                        System.out.println("Unknown option "+ args[i - 1] +".");
+                        System.out.println(USAGE);
+                        System.exit(0);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid value for "+ args[i - 1] +": "+ value);
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+        }
+
+        Map<String, Profile> profiles = Profile.defaults();
+        if (profileFile != null) {
+            try {
+                profiles = Profile.load(Paths.get(profileFile));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Could not read profiles: "+ e.getMessage());
+                System.exit(1);
+            }
+        }
+        List<String> lines = null;
+        try {
+            lines = Files.readAllLines(Paths.get(goldenFile));
+        } catch (IOException e) {
+            System.out.println("Could not read "+ goldenFile +": "+ e.getMessage());
+            System.exit(1);
+        }
+
+        Position[] positions = new Position[lines.size()];
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                positions[n] = parse(line);
+            } catch (IllegalArgumentException e) {
+                System.out.println(goldenFile +":"+ (n + 1) +": "+ e.getMessage());
+                System.exit(1);
+            }
+            if (positions[n].moves == null) {
+                if (!update) {
+                    System.out.println(goldenFile +":"+ (n + 1) +": no moves or result; run with -u to solve it.");
+                    System.exit(1);
+                }
+                solve(positions[n]);
+            }
+        }
+
+        // One untimed pass, so the JIT has compiled the search before any
+        // search is timed.
+        TranspositionTable table = new TranspositionTable(TABLE_BITS);
+        for (Position position : positions) {
+            for (Profile profile : position != null ? profiles.values() : List.<Profile>of()) {
+                search(position, profile, table, 1);
+            }
+        }
+
+        // Per profile, the time its searches took and their baselines' total;
+        // single searches are too short to time reliably.
+        Map<String, long[]> profileMicros = new LinkedHashMap<>();
+        for (String name : profiles.keySet()) {
+            profileMicros.put(name, new long[2]);
+        }
+        int failures = 0;
+        int checks = 0;
+        long totalStates = 0;
+        long totalMicros = 0;
+        for (int n = 0; n < lines.size(); n++) {
+            Position position = positions[n];
+            if (position == null) {
+                continue;
+            }
+            for (Profile profile : profiles.values()) {
+                long[] outcome = search(position, profile, table, runs);
+                int move = (int) outcome[0] + 1;
+                int score = (int) outcome[1];
+                totalStates += outcome[2];
+                totalMicros += outcome[3];
+                if (update) {
+                    position.baselines.put(profile.name, new long[] {score, outcome[2], outcome[3]});
+                    continue;
+                }
+
+                List<String> problems = new ArrayList<>();
+                if (!("," + position.moves + ",").contains("," + move + ",")) {
+                    problems.add("played "+ move +", not one of "+ position.moves);
+                }
+                long[] baseline = position.baselines.get(profile.name);
+                if (baseline == null) {
+                    problems.add("no baseline");
+                } else {
+                    if (score != baseline[0]) {
+                        problems.add("score "+ score +", was "+ baseline[0]);
+                    }
+                    if (outcome[2] * 100 > baseline[1] * (100 + stateTolerance)) {
+                        problems.add(outcome[2] +" states, was "+ baseline[1]);
+                    }
+                    long[] times = profileMicros.get(profile.name);
+                    times[0] += outcome[3];
+                    times[1] += baseline[2];
+                }
+                checks++;
+                if (!problems.isEmpty()) {
+                    failures++;
+                    System.out.println("FAIL "+ goldenFile +":"+ (n + 1) +" "+ position.game +" "+
+                        position.board +" "+ profile.name +": "+ String.join("; ", problems));
+                }
+            }
+            if (update) {
+                lines.set(n, position.toString());
+            }
+        }
+
+        if (update) {
+            try {
+                Files.write(Paths.get(goldenFile), lines);
+            } catch (IOException e) {
+                System.out.println("Could not write "+ goldenFile +": "+ e.getMessage());
+                System.exit(1);
+            }
+            System.out.println("Wrote baselines to "+ goldenFile +": "+ totalStates +" states, "+
+                totalMicros / 1000 +" ms in all.");
+            return;
+        }
+        for (Map.Entry<String, long[]> times : profileMicros.entrySet()) {
+            long[] micros = times.getValue();
+            if (micros[0] * 100 > micros[1] * (100 + timeTolerance) && micros[0] - micros[1] >= 1000) {
+                failures++;
+                System.out.println("FAIL "+ times.getKey() +": searches took "+ micros[0] +" us, was "+ micros[1]);
+            }
+        }
+        System.out.println(checks +" searches, "+ failures +" failed; "+ totalStates +" states, "+
+            totalMicros / 1000 +" ms in all.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
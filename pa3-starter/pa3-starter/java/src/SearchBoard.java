@@ -0,0 +1,124 @@
+// File:   SearchBoard.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Describes a game position that the search engine can play moves on
+//          in place, without allocating.
+
+/**
+ * A mutable game position for SearchEngine. Unlike GameState, a board is
+ * searched by playing moves on it and taking them back again, moves are
+ * plain ints (the index of the spot played, starting at 0) and values are
+ * ints. Nothing in here should allocate.
+ *
+ * Values are always from X's (the max player's) point of view, as they are
+ * for GameState.
+ */
+public interface SearchBoard {
+    /** The utility of a position X has won; O's wins are -WIN. */
+    public static final int WIN = 1000;
+
+    /**
+     * @return The number of spots on the board.
+     */
+    public int cellCount();
+
+    /**
+     * Writes the legal moves of the player to move into the given buffer,
+     * starting at index 0.
+     *
+     * @param moves A buffer with room for at least cellCount() moves.
+     * @return The number of moves written.
+     */
+    public int generateMoves(int[] moves);
+
+    /**
+     * Plays a move for the player to move.
+     *
+     * @param move The spot to take; must be open.
+     */
+    public void makeMove(int move);
+
+    /**
+     * Takes back the most recent move.
+     *
+     * @param move The move that was played.
+     */
+    public void unmakeMove(int move);
+
+    public boolean isTerminal();
+
+    /**
+     * @return WIN if X has won, -WIN if O has, 0 otherwise.
+     */
+    public int utility();
+
+    /**
+     * @return A heuristic value of a non-terminal position; positive favors X.
+     */
+    public int eval();
+
+    /**
+     * @return True if X (the max player) is to move.
+     */
+    public boolean isMax();
+
+    /**
+     * @return A 64-bit hash of the position, including the player to move.
+     */
+    public long hash();
+
+    /**
+     * @return The spot taken by the most recent move, or -1 if unknown.
+     */
+    public int lastMove();
+
+    /**
+     * @param player X or O.
+     * @return A bit mask of the spots the player has taken.
+     */
+    public long playerMask(char player);
+
+    /**
+     * Finds the spots that would win the game on the spot for a player: the
+     * open spot of each win line the player has every other spot of.
+     *
+     * @param player X or O.
+     * @return A bit mask of the winning spots; 0 if there are none.
+     */
+    public long winningSpots(char player);
+
+    /**
+     * Finds the spots that would give a player two different winning spots
+     * at once (a fork).
+     *
+     * @param player X or O.
+     * @return A bit mask of the forking spots; 0 if there are none.
+     */
+    public long forkSpots(char player);
+
+    /**
+     * Evaluates, all at once, the boards the given moves lead to. This is
+     * what the search engine calls one ply above its depth limit, where every
+     * child is evaluated. Boards that can work out a child's evaluation from
+     * their own (from just the lines through the move) override it, which is
+     * much cheaper than evaluating each child from scratch; by default each
+     * move is made, evaluated and unmade in turn.
+     *
+     * @param moves Moves for the player to move; all must be legal.
+     * @param count How many of the moves to evaluate.
+     * @param values Where to put what eval() would return after each move.
+     *               For moves that end the game the value is meaningless.
+     */
+    public default void evalChildren(int[] moves, int count, int[] values) {
+        for (int i = 0; i < count; i++) {
+            makeMove(moves[i]);
+            values[i] = isTerminal() ? utility() : eval();
+            unmakeMove(moves[i]);
+        }
+    }
+
+    /**
+     * @return An independent copy of this board.
+     */
+    public SearchBoard copy();
+}
@@ -0,0 +1,125 @@
+// File:   SearchBoardState.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Adapts a SearchBoard to the GameState interface used by Minimax.
+
+import java.util.ArrayList;
+
+/**
+ * Lets any SearchBoard be searched by Minimax, and so keeps the logging,
+ * tracing and tree export features of Minimax working for the games that
+ * have moved to SearchBoards. Minimax hands these states straight to
+ * SearchEngine when none of those features are in use.
+ *
+ * Moves are numbered from 1 here, as they are everywhere GameState is used.
+ */
+public class SearchBoardState implements GameState {
+    private final SearchBoard board;
+
+    /**
+     * @param board The board to wrap; the state takes ownership of it.
+     */
+    public SearchBoardState(SearchBoard board) {
+        this.board = board;
+    }
+
+    /**
+     * @return The wrapped board.
+     */
+    public SearchBoard getBoard() {
+        return board;
+    }
+
+    public boolean isTerminal() {
+        return board.isTerminal();
+    }
+
+    public double utility() {
+        return board.utility();
+    }
+
+    public double eval() {
+        return board.eval();
+    }
+
+    /**
+     * @return A state for each move of the player to move.
+     */
+    public ArrayList<SearchBoardState> successors() {
+        // Only needed until the successors are made, so one list per thread
+        // does for every ply.
+        SearchContext context = SearchContext.forThread();
+        context.ensure(board.cellCount());
+        int[] moves = context.moves();
+        int moveCount = board.generateMoves(moves);
+        ArrayList<SearchBoardState> successorStates = new ArrayList<SearchBoardState>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            SearchBoard successor = board.copy();
+            successor.makeMove(moves[i]);
+            successorStates.add(new SearchBoardState(successor));
+        }
+        return successorStates;
+    }
+
+    public boolean isMax() {
+        return board.isMax();
+    }
+
+    public ActionUtility getActionUtility() {
+        return new MoveUtility(getMove(), utility());
+    }
+
+    public ActionUtility getActionEval() {
+        return new MoveUtility(getMove(), eval());
+    }
+
+    public ActionUtility getActionUtility(double utility) {
+        return new MoveUtility(getMove(), utility);
+    }
+
+    /**
+     * @return The spot selected in the most recent move, starting at 1.
+     */
+    public int getMove() {
+        return board.lastMove() + 1;
+    }
+
+    public long playerMask(char player) {
+        return board.playerMask(player);
+    }
+
+    public String toString() {
+        return board.toString();
+    }
+
+    /**
+     * Serves as a wrapper for a move and the utility associated with it. The
+     * utility is on the board's scale, where wins are SearchBoard.WIN, but is
+     * printed divided by WIN, so that a win reads as 1 as it did before.
+     */
+    public static class MoveUtility implements ActionUtility {
+        public double utility;
+        public int move;
+
+        /**
+         * @param move The spot selected, starting at 1.
+         * @param utility The utility value associated with the move.
+         */
+        public MoveUtility(int move, double utility) {
+            this.move = move;
+            this.utility = utility;
+        }
+
+        public double getUtility() {
+            return utility;
+        }
+
+        public int getMove() {
+            return move;
+        }
+
+        public String toString() {
+            return "[\n\tmove: "+ move +",\n\tutility: "+ utility / SearchBoard.WIN +"\n]";
+        }
+    }
+}
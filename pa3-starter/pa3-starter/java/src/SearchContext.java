@@ -0,0 +1,109 @@
+// File:   SearchContext.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: The per-ply scratch space one search thread works in.
+
+/**
+ * Scratch space for one thread's search: for every ply, a MovePicker (which
+ * keeps that ply's moves and their scores) and a row of the principal
+ * variation table, each sized to the board (16 spots for ExtremeTicTacToe,
+ * 9 for TicTacToe), so searching a node allocates nothing. There's also one
+ * move list for the code around a search, to list a root's moves in.
+ *
+ * A context belongs to one thread; each SearchEngine has its own, and
+ * forThread() hands out one per thread for code that has no engine.
+ */
+public class SearchContext {
+    private static final ThreadLocal<SearchContext> CONTEXTS = ThreadLocal.withInitial(SearchContext::new);
+
+    private int[] moves = new int[0];
+    private MovePicker[] pickers = new MovePicker[0];
+    // The triangular principal variation table: the best line found so far
+    // from the node being searched at each ply, and its length.
+    private int[][] lines = new int[0][];
+    private int[] lineLengths = new int[0];
+
+    /**
+     * @return The calling thread's own context.
+     */
+    public static SearchContext forThread() {
+        return CONTEXTS.get();
+    }
+
+    /**
+     * Makes sure there's room for a search of a board. Arrays are only
+     * replaced when the board is bigger than any seen before.
+     *
+     * @param cells The number of spots on the board; a search is at most
+     *              this many plies deep.
+     */
+    public void ensure(int cells) {
+        if (moves.length < cells) {
+            moves = new int[cells];
+            pickers = new MovePicker[cells + 1];
+            lines = new int[cells + 1][cells];
+            lineLengths = new int[cells + 1];
+            for (int ply = 0; ply <= cells; ply++) {
+                pickers[ply] = new MovePicker(cells);
+            }
+        }
+    }
+
+    /**
+     * @return A move list for code outside the search, such as one listing
+     *         a root's moves; the search itself gets its moves from the
+     *         pickers.
+     */
+    public int[] moves() {
+        return moves;
+    }
+
+    /**
+     * @param ply The ply, 0 being the root.
+     * @return The move picker for nodes at that ply.
+     */
+    public MovePicker picker(int ply) {
+        return pickers[ply];
+    }
+
+    /**
+     * Forgets the line from the node at a ply, as for a node that has just
+     * been entered or that was decided without searching its moves.
+     *
+     * @param ply The ply, 0 being the root.
+     */
+    public void clearLine(int ply) {
+        lineLengths[ply] = 0;
+    }
+
+    /**
+     * Makes a move followed by the line from the node one ply below the
+     * line from the node at a ply, once the move is the best found there.
+     *
+     * @param ply The ply of the node, below the last ply of the board.
+     * @param move The move.
+     */
+    public void setLine(int ply, int move) {
+        int length = lineLengths[ply + 1];
+        lines[ply][0] = move;
+        System.arraycopy(lines[ply + 1], 0, lines[ply], 1, length);
+        lineLengths[ply] = length + 1;
+    }
+
+    /**
+     * @param ply The ply, 0 being the root.
+     * @return The best line found from the node at that ply; only the first
+     *         lineLength(ply) moves are part of it.
+     */
+    public int[] line(int ply) {
+        return lines[ply];
+    }
+
+    /**
+     * @param ply The ply, 0 being the root.
+     * @return The length of the line from the node at that ply.
+     */
+    public int lineLength(int ply) {
+        return lineLengths[ply];
+    }
+}
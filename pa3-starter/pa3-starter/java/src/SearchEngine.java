@@ -0,0 +1,1087 @@
+// File:   SearchEngine.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Carries out Minimax on SearchBoards without allocating.
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Minimax (in its negamax form) with optional alpha-beta pruning over a
+ * SearchBoard. The board is searched in place by making and unmaking moves,
+ * and the move lists live in buffers allocated once per engine, so the
+ * search itself allocates nothing. An engine is not thread safe; use one per
+ * thread.
+ */
+public class SearchEngine {
+    // Larger than any value a board can produce.
+    private static final int INFINITY = 1000000;
+
+    private final boolean useAlphaBeta;
+    private boolean useThreats = true;
+    private boolean useQuiescence = true;
+    // How many states a quiescence search may look at past each horizon node.
+    private int quiescenceLimit = 64;
+    private int quiescenceNodes;
+    // Boards with this many open spots or fewer are solved exactly; -1 for
+    // the board's default, fixed into endgameLimit when each search starts.
+    private int endgameSpots = -1;
+    private int endgameLimit;
+    // The default for ExtremeTicTacToe. Smaller boards are never solved by
+    // default, since every child of a 3x3 root would be, and the depth limit
+    // would mean nothing.
+    private static final int EXTREME_ENDGAME_SPOTS = 10;
+    private EndgameSolver endgameSolver;
+    private TranspositionTable table;
+    // Proven results kept from run to run, for boards this near the root.
+    private PersistentCache cache;
+    private static final int CACHE_PLY = 6;
+    private boolean useHistory = false;
+    // How often each move has caused a cutoff, per player to move; kept
+    // between searches and halved at the start of each.
+    private int[][] history = new int[2][0];
+    // The line of play the last search expected, and the hashes of the
+    // boards along it.
+    private int[] line = new int[0];
+    private long[] lineHashes = new long[0];
+    private int lineLength;
+    // How many plies of the path being searched follow the line.
+    private int linePly;
+    private long stateCount;
+    // Per-ply move pickers (which, for nodes one ply above the depth limit,
+    // also hold their children's evaluations, made all at once by
+    // SearchBoard.evalChildren()) and the principal variation table.
+    private final SearchContext context = new SearchContext();
+    private boolean useBatchEval = true;
+    // Selective search near the depth limit; see the setters.
+    private boolean useReductions = false;
+    private boolean useFutility = false;
+    private int futilityMargin = 2;
+    // The child evaluation the next evaluate() should use instead of
+    // calling eval().
+    private int childValue = MovePicker.NO_VALUE;
+    private int bestMove;
+    // How many of the root's moves get exact values, and the root's moves
+    // searched so far, best first, with their values and bounds.
+    private int multiPV = 1;
+    private int[] rootMoves = new int[0];
+    private int[] rootValues = new int[0];
+    private int[] rootBounds = new int[0];
+    // The lines after the root's moves that have exact values.
+    private int[][] rootLines = new int[0][];
+    private int[] rootLineLengths = new int[0];
+    private int rootCount;
+    // The best moves of the last search that finished.
+    private List<SearchResult> lines = new ArrayList<>();
+    // Set by another thread to stop the search; checked every few states.
+    private volatile boolean stopRequested;
+    private boolean aborted;
+    private long nextCheck;
+    // Budget of the search in progress, as a System.nanoTime() deadline and
+    // a state count.
+    private long deadline = Long.MAX_VALUE;
+    private long nodeLimit = Long.MAX_VALUE;
+    private int evalNoise;
+    private long noiseSeed;
+    // Told of each finished iteration of an asynchronous search.
+    private Consumer<SearchResult> progress;
+    // Engines that search alongside this one when a profile asks for threads.
+    private SearchEngine[] helpers = new SearchEngine[0];
+
+    /**
+     * @param useAlphaBeta True to prune with alpha-beta.
+     */
+    public SearchEngine(boolean useAlphaBeta) {
+        this.useAlphaBeta = useAlphaBeta;
+    }
+
+    /**
+     * Turns threat detection on or off (it's on by default). With it on, a
+     * player who can complete a win line takes the win without searching
+     * further, a player facing one opponent threat only considers blocking
+     * it, and a player facing two or more has lost. All of this is exact, so
+     * it changes how much is searched, not the outcome of full searches.
+     * 
+     * @param useThreats True to use threat detection.
+     */
+    public void setThreats(boolean useThreats) {
+        this.useThreats = useThreats;
+    }
+
+    /**
+     * Turns the quiescence search on or off (it's on by default). With it on,
+     * a board at the depth limit is only evaluated once it's quiet: wins,
+     * forced blocks and double threats are searched past the limit first.
+     * 
+     * @param useQuiescence True to use the quiescence search.
+     */
+    public void setQuiescence(boolean useQuiescence) {
+        this.useQuiescence = useQuiescence;
+    }
+
+    /**
+     * @param quiescenceLimit The most states a quiescence search may look at
+     *                        past any one board at the depth limit.
+     */
+    public void setQuiescenceLimit(int quiescenceLimit) {
+        this.quiescenceLimit = quiescenceLimit;
+    }
+
+    /**
+     * Sets how few open spots a board must have before the engine stops
+     * searching it with Minimax and solves it exactly with EndgameSolver,
+     * ignoring the depth limit. Use 0 to turn the solver off, or -1 (the
+     * default) for 10 on ExtremeTicTacToe's board and off on the others.
+     * 
+     * @param endgameSpots The most open spots a board can have to be solved.
+     */
+    public void setEndgameSpots(int endgameSpots) {
+        this.endgameSpots = endgameSpots;
+    }
+
+    /**
+     * Shares a transposition table with this engine, so positions already
+     * searched (by this engine or another using the same table) aren't
+     * searched again. Use null (the default) for no table.
+     * 
+     * @param table The table to use, or null.
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * @return The engine's transposition table, or null if it has none.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Shares a persistent cache with this engine. Proven wins and losses,
+     * and results of full searches, found within a few moves of the root
+     * are stored in it, and looked up there when the transposition table
+     * doesn't have them. Use null (the default) for no cache.
+     * 
+     * @param cache The cache to use, or null.
+     */
+    public void setPersistentCache(PersistentCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Turns the history heuristic on or off (it's off by default). With it
+     * on, moves that caused alpha-beta cutoffs in earlier searches of this
+     * engine are tried first, so an engine kept for a whole game gets better
+     * at ordering its moves as the game goes on.
+     * 
+     * @param useHistory True to order moves by history.
+     */
+    public void setHistory(boolean useHistory) {
+        this.useHistory = useHistory;
+    }
+
+    /**
+     * Turns batch evaluation on or off (it's on by default). With it on, the
+     * children of a board one ply above the depth limit are evaluated all
+     * at once with SearchBoard.evalChildren(), which boards can do far more
+     * cheaply than evaluating each child from scratch. The children are
+     * searched in the same order either way, so searches find the same
+     * results after the same states, only faster.
+     *
+     * @param useBatchEval True to evaluate children in batches.
+     */
+    public void setBatchEval(boolean useBatchEval) {
+        this.useBatchEval = useBatchEval;
+    }
+
+    /**
+     * Turns late move reductions on or off (they're off by default). With
+     * them on, a quiet move (not the table's move, a win or a block) that
+     * comes after the first three of its board's moves, three or more
+     * plies from the depth limit, is first searched a ply shallower (two,
+     * after the first six and five or more plies from the limit) with a
+     * null window, and only searched to the full depth if that beats
+     * alpha. Moves that make a threat aren't reduced. Fewer states are
+     * searched, but a good move ordered late can be missed.
+     *
+     * @param useReductions True to reduce late moves.
+     */
+    public void setLateMoveReductions(boolean useReductions) {
+        this.useReductions = useReductions;
+    }
+
+    /**
+     * Turns futility pruning on or off (it's off by default). With it on, a
+     * quiet move one or two plies from the depth limit isn't searched if
+     * the board it leads to evaluates at or below alpha by more than the
+     * futility margin for each ply left (and the eval noise), since the
+     * few moves left are unlikely to make up the difference. Moves that
+     * make a threat are always searched.
+     *
+     * @param useFutility True to prune futile moves.
+     */
+    public void setFutilityPruning(boolean useFutility) {
+        this.useFutility = useFutility;
+    }
+
+    /**
+     * @param futilityMargin How much one ply of search is assumed to be
+     *                       able to raise an evaluation, for futility
+     *                       pruning (2 by default, which suits the
+     *                       built-in and tuned ExtremeTicTacToe
+     *                       evaluations).
+     */
+    public void setFutilityMargin(int futilityMargin) {
+        this.futilityMargin = futilityMargin;
+    }
+
+    /**
+     * Has every evaluation moved up or down by a random amount of at most
+     * evalNoise, so weaker profiles make the odd mistake. Wins and losses
+     * aren't affected. The noise for a board stays the same for a whole
+     * search, so the search is still consistent.
+     * 
+     * @param evalNoise The most an evaluation may change by; 0 (the default)
+     *                  for none.
+     */
+    public void setEvalNoise(int evalNoise) {
+        this.evalNoise = evalNoise;
+        noiseSeed = System.nanoTime();
+    }
+
+    /**
+     * Has searches find the best count moves at the root, each with an
+     * exact value, rather than just the best one. The root's moves are
+     * searched against the count-th best value found so far instead of the
+     * best, so the rest of them are only shown to be no better than that
+     * and cost little more than in a normal search. Everything else is
+     * shared with the normal search, the transposition table included.
+     * Threats aren't taken as shortcuts at the root, so every move gets a
+     * value. See getLines().
+     *
+     * @param count How many moves to find values for; 1 (the default) for
+     *              a normal search.
+     */
+    public void setMultiPV(int count) {
+        this.multiPV = Math.max(1, count);
+    }
+
+    /**
+     * @return The best moves at the root of the last search that finished
+     *         (the last depth finished, for a search within a profile),
+     *         best first: as many as setMultiPV() asked for, or as there
+     *         are moves. Each has its value (exact, or for moves after the
+     *         best few, a bound), and the line the search expects after it,
+     *         read from the transposition table.
+     */
+    public List<SearchResult> getLines() {
+        return lines;
+    }
+
+    /**
+     * Asks a search running on another thread to stop as soon as it can.
+     * The stopped search returns null and leaves the transposition table
+     * holding only complete results. If no search is running, the next one
+     * to start is stopped instead.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * @return The number of states expanded by this engine.
+     */
+    public long getStateCount() {
+        return stateCount;
+    }
+
+    public void resetStateCount() {
+        stateCount = 0;
+    }
+
+    /**
+     * Finds the best move for the player to move on the given board. The
+     * board is left as it was.
+     *
+     * @param board The board to find the next move for; must not be terminal.
+     * @param depth The depth at which to stop in depth-limited Minimax; use -1
+     *              to conduct a full Minimax search.
+     * @return The move and its value, or null if the search was stopped.
+     */
+    public SearchResult search(SearchBoard board, int depth) {
+        SearchEvents.RootSearch event = startEvent();
+        long startCount = stateCount;
+        prepare(board, true);
+
+        int score = root(board, depth);
+        if (aborted) {
+            stopRequested = false;
+            lineLength = 0;
+            return null;
+        }
+        SearchResult result = new SearchResult(bestMove, board.isMax() ? score : -score,
+            depth, stateCount - startCount);
+        lines = rootLines(board, score, depth, result.nodes);
+        result.line = lines.get(0).line;
+        saveLine(board, result.line);
+
+        commit(event, result);
+        return result;
+    }
+
+    /**
+     * Finds the best move it can for the player to move within a profile's
+     * budget. The search is deepened a ply at a time, up to the profile's
+     * depth limit, until it runs out of time or states, proves a win or
+     * loss, or reaches the end of the game; the best move of the deepest
+     * search to finish is returned. A stop() request ends the search the
+     * same way. If the profile asks for more than one thread, helper engines
+     * share the transposition table and search alongside this one (with no
+     * table, only one thread is used).
+     *
+     * @param board The board to find the next move for; must not be terminal.
+     *              It's left as it was.
+     * @param profile The budget to stay within.
+     * @return The move and its value; depth is the depth of the deepest
+     *         search that finished.
+     */
+    public SearchResult search(SearchBoard board, Profile profile) {
+        SearchEvents.RootSearch event = startEvent();
+        long startCount = stateCount;
+        prepare(board, true);
+        setEvalNoise(profile.evalNoise);
+        deadline = profile.maxMillis > 0 ?
+            System.nanoTime() + profile.maxMillis * 1000000 : Long.MAX_VALUE;
+        nodeLimit = profile.maxNodes > 0 ? stateCount + profile.maxNodes : Long.MAX_VALUE;
+
+        int helperCount = table != null ? profile.maxThreads - 1 : 0;
+        Thread[] threads = startHelpers(board, profile, helperCount);
+
+        int open = board.cellCount() -
+            Long.bitCount(board.playerMask('X') | board.playerMask('O'));
+        int maxDepth = profile.maxDepth < 0 ? open : Math.min(profile.maxDepth, open);
+        SearchResult result = null;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            SearchEvents.Iteration iteration = event != null ? new SearchEvents.Iteration() : null;
+            if (iteration != null) {
+                iteration.begin();
+            }
+            long iterationCount = stateCount;
+            int score = root(board, depth);
+            if (aborted) {
+                break;
+            }
+            result = new SearchResult(bestMove, board.isMax() ? score : -score,
+                depth, stateCount - startCount);
+            lines = rootLines(board, score, depth, result.nodes);
+            result.line = lines.get(0).line;
+
+            if (iteration != null) {
+                iteration.end();
+                if (iteration.shouldCommit()) {
+                    iteration.depth = depth;
+                    iteration.nodes = stateCount - iterationCount;
+                    iteration.score = result.score;
+                    iteration.bestMove = result.move + 1;
+                    iteration.commit();
+                }
+            }
+            if (progress != null) {
+                progress.accept(result);
+            }
+            if (Math.abs(score) >= SearchBoard.WIN) {
+                break;
+            }
+        }
+
+        stopHelpers(threads, helperCount);
+        stopRequested = false;
+        deadline = Long.MAX_VALUE;
+        nodeLimit = Long.MAX_VALUE;
+        if (result == null) {
+            // Not even one ply fit in the budget; take any move.
+            int[] moveList = context.moves();
+            board.generateMoves(moveList);
+            int move = bestMove >= 0 ? bestMove : moveList[0];
+            result = new SearchResult(move, board.eval(), 0, stateCount - startCount);
+            result.line = new int[] {move};
+            lines = new ArrayList<>(List.of(result));
+            lineLength = 0;
+        } else {
+            saveLine(board, result.line);
+        }
+
+        commit(event, result);
+        return result;
+    }
+
+    /**
+     * Starts a search within a profile's budget on a thread of its own; see
+     * the executor version.
+     */
+    public CompletableFuture<SearchResult> searchAsync(SearchBoard board, Profile profile,
+            Consumer<SearchResult> progress) {
+        return searchAsync(board, profile, progress, task -> {
+            Thread thread = new Thread(task, "search");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Starts a search within a profile's budget and returns straight away.
+     * The profile's time limit works as a deadline: the future completes
+     * with the best move found by then. Cancelling the future stops the
+     * search within a thousand or so states; stop() instead ends it early
+     * with the best move found so far.
+     *
+     * The engine must not start another search until the future is done.
+     * To run many searches at once, use an engine for each; they may share
+     * a transposition table.
+     *
+     * @param board The board to find the next move for; must not be terminal.
+     *              It's copied, so the caller may go on to change it.
+     * @param profile The budget to stay within.
+     * @param progress Told the result of each depth as the search finishes
+     *                 it (on the search's thread), or null.
+     * @param executor Runs the search.
+     * @return The result to come.
+     */
+    public CompletableFuture<SearchResult> searchAsync(SearchBoard board, Profile profile,
+            Consumer<SearchResult> progress, Executor executor) {
+        SearchBoard root = board.copy();
+        CompletableFuture<SearchResult> future = new CompletableFuture<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        future.whenComplete((result, error) -> {
+            // Cancelled or timed out by the caller: stop the search, unless
+            // it's over and the stop would hit the engine's next search.
+            synchronized (running) {
+                if (error != null && running.get()) {
+                    stop();
+                }
+            }
+        });
+        executor.execute(() -> {
+            SearchResult result = null;
+            RuntimeException failure = null;
+            if (!future.isDone()) {
+                this.progress = progress;
+                try {
+                    result = search(root, profile);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+                this.progress = null;
+            }
+            synchronized (running) {
+                running.set(false);
+                stopRequested = false;
+            }
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Gets the engine ready to search from a new root.
+     *
+     * @param board The root.
+     * @param owner True for the engine that owns the search, false for its
+     *              helpers; only the owner starts a new table generation,
+     *              so one search ages the table by exactly one.
+     */
+    private void prepare(SearchBoard board, boolean owner) {
+        int cells = board.cellCount();
+        context.ensure(cells);
+        endgameLimit = endgameSpots >= 0 ? endgameSpots
+            : board instanceof ExtremeBoard ? EXTREME_ENDGAME_SPOTS : 0;
+        if (history[0].length != cells) {
+            history = new int[2][cells];
+        } else {
+            for (int i = 0; i < cells; i++) {
+                history[0][i] >>= 1;
+                history[1][i] >>= 1;
+            }
+        }
+        if (owner && table != null) {
+            table.newSearch();
+        }
+        if (rootMoves.length != cells) {
+            rootMoves = new int[cells];
+            rootValues = new int[cells];
+            rootBounds = new int[cells];
+            rootLines = new int[cells][cells];
+            rootLineLengths = new int[cells];
+        }
+        followLine(board);
+    }
+
+    /**
+     * Searches from the root to the given depth.
+     *
+     * @param board The root.
+     * @param depth The depth limit, or -1 for none.
+     * @return The value of the root for the player to move; the move is left
+     *         in bestMove.
+     */
+    private int root(SearchBoard board, int depth) {
+        bestMove = -1;
+        rootCount = 0;
+        aborted = false;
+        return negamax(board, depth, 0, -INFINITY, INFINITY);
+    }
+
+    /**
+     * Starts helper engines searching a board alongside this one ("lazy
+     * SMP"). They don't report anything; what they find reaches this engine
+     * through the shared transposition table. Half of them start a ply
+     * deeper than this engine, so the threads don't all search the same
+     * tree.
+     *
+     * @param board The root.
+     * @param profile The budget; each helper gets the same one.
+     * @param count How many helpers to start.
+     * @return The helpers' threads.
+     */
+    private Thread[] startHelpers(SearchBoard board, Profile profile, int count) {
+        if (helpers.length < count) {
+            helpers = Arrays.copyOf(helpers, count);
+        }
+        Thread[] threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            if (helpers[i] == null) {
+                helpers[i] = new SearchEngine(useAlphaBeta);
+            }
+            SearchEngine helper = helpers[i];
+            copySettings(helper);
+            helper.deadline = deadline;
+            helper.nodeLimit = profile.maxNodes > 0 ?
+                helper.stateCount + profile.maxNodes : Long.MAX_VALUE;
+
+            SearchBoard helperBoard = board.copy();
+            int firstDepth = 1 + (i & 1);
+            int maxDepth = profile.maxDepth;
+            threads[i] = new Thread(() -> helper.help(helperBoard, firstDepth, maxDepth), "search-helper-"+ i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        return threads;
+    }
+
+    /**
+     * Gives another engine this one's table, cache and settings.
+     *
+     * @param other The engine to set up.
+     */
+    private void copySettings(SearchEngine other) {
+        other.table = table;
+        other.cache = cache;
+        other.useThreats = useThreats;
+        other.useQuiescence = useQuiescence;
+        other.quiescenceLimit = quiescenceLimit;
+        other.endgameSpots = endgameSpots;
+        other.useHistory = useHistory;
+        other.useBatchEval = useBatchEval;
+        other.useReductions = useReductions;
+        other.useFutility = useFutility;
+        other.futilityMargin = futilityMargin;
+        other.evalNoise = evalNoise;
+        other.noiseSeed = noiseSeed;
+    }
+
+    /**
+     * Makes an engine that searches the way this one does, to search on
+     * another thread: it shares this engine's transposition table and cache,
+     * has all of its settings (multi-PV included), and starts from a copy of
+     * its history table. A profile's budget, threads and noise still come
+     * from the profile each search is given.
+     *
+     * @return The new engine.
+     */
+    public SearchEngine copy() {
+        SearchEngine other = new SearchEngine(useAlphaBeta);
+        copySettings(other);
+        other.multiPV = multiPV;
+        other.history = new int[][] {history[0].clone(), history[1].clone()};
+        return other;
+    }
+
+    /**
+     * Stops the helpers and waits for them to finish.
+     *
+     * @param threads The helpers' threads.
+     * @param count How many helpers there are.
+     */
+    private void stopHelpers(Thread[] threads, int count) {
+        for (int i = 0; i < count; i++) {
+            helpers[i].stop();
+        }
+        for (int i = 0; i < count; i++) {
+            try {
+                threads[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            helpers[i].stopRequested = false;
+        }
+    }
+
+    /**
+     * Deepens a helper's search until it's stopped or out of budget.
+     *
+     * @param board The root, which belongs to this helper.
+     * @param firstDepth The depth to start at.
+     * @param maxDepth The deepest search to try, or -1 for no limit.
+     */
+    private void help(SearchBoard board, int firstDepth, int maxDepth) {
+        prepare(board, false);
+        int open = board.cellCount() -
+            Long.bitCount(board.playerMask('X') | board.playerMask('O'));
+        int lastDepth = maxDepth < 0 ? open : Math.min(maxDepth, open);
+        for (int depth = firstDepth; depth <= lastDepth; depth++) {
+            root(board, depth);
+            if (aborted) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return A begun root search event, or null if Flight Recorder hasn't
+     *         started (see SearchEvents.recorderStarted()).
+     */
+    private static SearchEvents.RootSearch startEvent() {
+        if (!SearchEvents.recorderStarted()) {
+            return null;
+        }
+        SearchEvents.RootSearch event = new SearchEvents.RootSearch();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends, fills in and commits a root search event, if there is one and
+     * it's enabled.
+     */
+    private void commit(SearchEvents.RootSearch event, SearchResult result) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.depth = result.depth;
+            event.nodes = result.nodes;
+            event.score = result.score;
+            event.bestMove = result.move + 1;
+            event.alphaBeta = useAlphaBeta;
+            event.commit();
+        }
+    }
+
+    /**
+     * Finds the value of a board for the player to move.
+     *
+     * @param board The board; it's returned to its original state.
+     * @param depth The remaining depth, or a negative number for no limit.
+     * @param ply How many moves below the root this board is.
+     * @param alpha The value the player to move is already assured of.
+     * @param beta The value the opponent is already assured of.
+     * @return The value of the board for the player to move.
+     */
+    private int negamax(SearchBoard board, int depth, int ply, int alpha, int beta) {
+        stateCount++;
+        context.clearLine(ply);
+
+        if (board.isTerminal()) {
+            return board.isMax() ? board.utility() : -board.utility();
+        } else if (ply > 0 && board instanceof LineBoard &&
+                board.cellCount() - Long.bitCount(board.playerMask('X') | board.playerMask('O')) <= endgameLimit) {
+            // Late in the game an exact answer is cheaper than a search.
+            if (endgameSolver == null) {
+                endgameSolver = new EndgameSolver(16);
+            }
+            long solverCount = endgameSolver.getNodeCount();
+            int value = endgameSolver.solve((LineBoard) board);
+            stateCount += endgameSolver.getNodeCount() - solverCount - 1;
+            return value;
+        } else if (depth == 0) {
+            if (useQuiescence) {
+                quiescenceNodes = 0;
+                return quiesce(board);
+            }
+            return evaluate(board);
+        }
+
+        if (stateCount >= nextCheck) {
+            nextCheck = stateCount + 1024;
+            if (stopRequested || stateCount >= nodeLimit || System.nanoTime() >= deadline) {
+                aborted = true;
+                return 0;
+            }
+        }
+
+        // Use what's known about this position from earlier searches.
+        int tableDepth = depth < 0 ? TranspositionTable.UNLIMITED : depth;
+        int tableMove = -1;
+        long hash = board.hash();
+        long entry = table != null ? table.probe(hash) : 0;
+        if (cache != null && ply <= CACHE_PLY &&
+                (entry == 0 || TranspositionTable.depth(entry) < tableDepth)) {
+            long cached = cache.probe(hash);
+            if (cached != 0) {
+                entry = cached;
+            }
+        }
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= tableDepth) {
+                int value = TranspositionTable.value(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT ||
+                        bound == TranspositionTable.LOWER && value >= beta ||
+                        bound == TranspositionTable.UPPER && value <= alpha) {
+                    return value;
+                }
+            }
+        }
+
+        long allowed = -1;
+        if (useThreats && (ply > 0 || multiPV == 1)) {
+            char player = board.isMax() ? 'X' : 'O';
+            long wins = board.winningSpots(player);
+            if (wins != 0) {
+                // Take the win.
+                int win = Long.numberOfTrailingZeros(wins);
+                if (ply == 0) {
+                    bestMove = win;
+                }
+                context.clearLine(ply + 1);
+                context.setLine(ply, win);
+                return SearchBoard.WIN;
+            }
+
+            long threats = board.winningSpots(player == 'X' ? 'O' : 'X');
+            if (threats != 0) {
+                if (ply == 0) {
+                    bestMove = Long.numberOfTrailingZeros(threats);
+                }
+                if ((threats & (threats - 1)) != 0) {
+                    // Only one of two threats can be blocked.
+                    context.clearLine(ply + 2);
+                    context.setLine(ply + 1, Long.numberOfTrailingZeros(threats & (threats - 1)));
+                    context.setLine(ply, Long.numberOfTrailingZeros(threats));
+                    return -SearchBoard.WIN;
+                }
+                // The only move that doesn't lose is the block.
+                allowed = threats;
+            }
+        }
+
+        // Search the best move from the table first, or failing that the
+        // move the last search expected here; then wins, blocks and the
+        // rest, best first. Children about to be evaluated are evaluated
+        // together, and that orders them.
+        boolean onLine = linePly == ply && ply < lineLength;
+        int firstMove = tableMove >= 0 ? tableMove : onLine ? line[ply] : -1;
+        int[] moveHistory = history[board.isMax() ? 0 : 1];
+        MovePicker picker = context.picker(ply);
+        picker.start(board, allowed, firstMove, useHistory ? moveHistory : null,
+            useAlphaBeta, useBatchEval && depth == 1);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestHere = -1;
+        char mover = board.isMax() ? 'X' : 'O';
+        int sign = board.isMax() ? 1 : -1;
+        int tried = 0;
+        for (int move = picker.next(); move >= 0; move = picker.next(), tried++) {
+            if (onLine && move == line[ply]) {
+                linePly = ply + 1;
+            }
+            board.makeMove(move);
+
+            // Quiet moves near the depth limit, or late in the order, may
+            // be pruned or reduced; moves that make a threat never are.
+            boolean futile = useFutility && depth > 0 && depth <= 2;
+            boolean late = useReductions && depth >= 3 && tried >= 3;
+            boolean selective = (futile || late) && useAlphaBeta && ply > 0 && allowed == -1 &&
+                picker.isQuiet() && !board.isTerminal() && board.winningSpots(mover) == 0;
+            if (selective && futile) {
+                int eval = picker.value() != MovePicker.NO_VALUE ? picker.value() : board.eval();
+                int bound = sign * eval + futilityMargin * depth + evalNoise;
+                if (bound <= alpha) {
+                    board.unmakeMove(move);
+                    // Fail low, no higher than the search is assumed to get.
+                    best = Math.max(best, bound);
+                    continue;
+                }
+            }
+
+            int value;
+            childValue = picker.value();
+            if (selective && late) {
+                int reduction = depth >= 5 && tried >= 6 ? 2 : 1;
+                value = -negamax(board, depth - 1 - reduction, ply + 1, -alpha - 1, -alpha);
+                if (value > alpha && !aborted) {
+                    value = -negamax(board, depth - 1, ply + 1, -beta, -alpha);
+                }
+            } else {
+                value = -negamax(board, depth - 1, ply + 1, -beta, -alpha);
+            }
+            childValue = MovePicker.NO_VALUE;
+            board.unmakeMove(move);
+            linePly = Math.min(linePly, ply);
+            if (aborted) {
+                return 0;
+            }
+
+            if (value > best) {
+                best = value;
+                bestHere = move;
+                context.setLine(ply, move);
+                if (ply == 0) {
+                    bestMove = move;
+                }
+            }
+            if (ply == 0) {
+                addRootMove(move, value, value > alpha ? TranspositionTable.EXACT : TranspositionTable.UPPER);
+            }
+
+            // Alpha-beta pruning.
+            if (useAlphaBeta) {
+                if (best >= beta) {
+                    if (useHistory) {
+                        int remaining = depth < 0 ? board.cellCount() - ply : depth;
+                        moveHistory[move] += remaining * remaining;
+                    }
+                    break;
+                }
+                // With multi-PV, the root only needs to beat the last of
+                // the best few.
+                if (ply > 0) {
+                    alpha = Math.max(alpha, best);
+                } else if (rootCount >= multiPV) {
+                    alpha = rootValues[multiPV - 1];
+                }
+            }
+        }
+
+        int bound = !useAlphaBeta ? TranspositionTable.EXACT :
+            best <= originalAlpha ? TranspositionTable.UPPER :
+            best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        if (table != null) {
+            table.store(hash, bestHere, best, tableDepth, bound);
+        }
+        if (cache != null && ply <= CACHE_PLY && (depth < 0 || Math.abs(best) >= SearchBoard.WIN)) {
+            // Whatever the depth limit, this result holds for good.
+            cache.store(hash, TranspositionTable.entry(bestHere, best, TranspositionTable.UNLIMITED, bound));
+        }
+        return best;
+    }
+
+    /**
+     * Adds a move to the root's moves, keeping them best first; a bound
+     * goes after an exact value that's just as good.
+     */
+    private void addRootMove(int move, int value, int bound) {
+        int i = rootCount++;
+        int[] rootLine = rootLines[i];
+        while (i > 0 && rootValues[i - 1] < value) {
+            rootMoves[i] = rootMoves[i - 1];
+            rootValues[i] = rootValues[i - 1];
+            rootBounds[i] = rootBounds[i - 1];
+            rootLines[i] = rootLines[i - 1];
+            rootLineLengths[i] = rootLineLengths[i - 1];
+            i--;
+        }
+        rootMoves[i] = move;
+        rootValues[i] = value;
+        rootBounds[i] = bound;
+        rootLines[i] = rootLine;
+        // A bound's line is only the refutation of the move.
+        rootLineLengths[i] = bound == TranspositionTable.EXACT ? context.lineLength(1) : 0;
+        System.arraycopy(context.line(1), 0, rootLine, 0, rootLineLengths[i]);
+    }
+
+    /**
+     * Turns the root's best moves into results for getLines().
+     *
+     * @param board The root; it's left as it was.
+     * @param score The value of the root for the player to move.
+     * @param depth The depth searched.
+     * @param nodes The states the search expanded.
+     * @return The best moves, best first.
+     */
+    private List<SearchResult> rootLines(SearchBoard board, int score, int depth, long nodes) {
+        List<SearchResult> results = new ArrayList<>();
+        int sign = board.isMax() ? 1 : -1;
+        if (rootCount == 0) {
+            // Decided by a threat without searching the moves.
+            rootMoves[0] = bestMove;
+            rootValues[0] = score;
+            rootBounds[0] = TranspositionTable.EXACT;
+            rootLineLengths[0] = 0;
+            rootCount = 1;
+        }
+        for (int i = 0; i < Math.min(multiPV, rootCount); i++) {
+            SearchResult result = new SearchResult(rootMoves[i], sign * rootValues[i], depth, nodes);
+            if (rootBounds[i] != TranspositionTable.EXACT) {
+                result.bound = board.isMax() ? TranspositionTable.UPPER : TranspositionTable.LOWER;
+            }
+            result.line = expectedLine(board, rootMoves[i], rootLines[i], rootLineLengths[i]);
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * @param board The root; it's left as it was.
+     * @param move A move at the root.
+     * @param after The line the search found after the move.
+     * @param afterLength The length of that line.
+     * @return The move and the line after it, carried on with the best
+     *         moves in the table where the line stops short of the end of
+     *         the game (at a table cutoff or a solved endgame, say).
+     */
+    private int[] expectedLine(SearchBoard board, int move, int[] after, int afterLength) {
+        int[] moves = new int[board.cellCount()];
+        int length = 0;
+        moves[length++] = move;
+        board.makeMove(move);
+        for (int i = 0; i < afterLength; i++) {
+            moves[length++] = after[i];
+            board.makeMove(after[i]);
+        }
+        while (table != null && length < moves.length && !board.isTerminal()) {
+            int next = TranspositionTable.move(table.probe(board.hash()));
+            long taken = board.playerMask('X') | board.playerMask('O');
+            if (next < 0 || (taken & 1L << next) != 0) {
+                break;
+            }
+            moves[length++] = next;
+            board.makeMove(next);
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            board.unmakeMove(moves[i]);
+        }
+        return Arrays.copyOf(moves, length);
+    }
+
+    /**
+     * Picks up the line the last search expected if the board is somewhere
+     * along it (normally two plies in, after one move by each player), so
+     * the rest of the line is searched first.
+     *
+     * @param board The board about to be searched.
+     */
+    private void followLine(SearchBoard board) {
+        linePly = 0;
+        long hash = board.hash();
+        for (int i = 0; i < lineLength; i++) {
+            if (lineHashes[i] == hash) {
+                lineLength -= i;
+                System.arraycopy(line, i, line, 0, lineLength);
+                System.arraycopy(lineHashes, i, lineHashes, 0, lineLength);
+                return;
+            }
+        }
+        lineLength = 0;
+    }
+
+    /**
+     * Remembers the line just found, for followLine() to pick up next
+     * search.
+     *
+     * @param board The board that was searched; it's left as it was.
+     * @param expected The line, starting with the move chosen.
+     */
+    private void saveLine(SearchBoard board, int[] expected) {
+        int cells = board.cellCount();
+        if (line.length != cells) {
+            line = new int[cells];
+            lineHashes = new long[cells];
+        }
+        for (lineLength = 0; lineLength < expected.length; lineLength++) {
+            line[lineLength] = expected[lineLength];
+            lineHashes[lineLength] = board.hash();
+            board.makeMove(expected[lineLength]);
+        }
+        for (int i = lineLength - 1; i >= 0; i--) {
+            board.unmakeMove(line[i]);
+        }
+    }
+
+    /**
+     * @param board A non-terminal board.
+     * @return The board's evaluation for the player to move, with noise.
+     */
+    private int evaluate(SearchBoard board) {
+        int value = childValue != MovePicker.NO_VALUE ? childValue : board.eval();
+        childValue = MovePicker.NO_VALUE;
+        if (!board.isMax()) {
+            value = -value;
+        }
+        if (evalNoise > 0) {
+            long mix = (board.hash() ^ noiseSeed) * 0x9E3779B97F4A7C15L;
+            value += (int) ((mix >>> 33) % (2 * evalNoise + 1)) - evalNoise;
+        }
+        return value;
+    }
+
+    /**
+     * Finds the value of a board past the depth limit by searching only the
+     * moves that force the game: taking a win, blocking the opponent's only
+     * threat, and making two threats at once (which wins, as only one can be
+     * blocked). Once none of those apply the board is quiet and is
+     * evaluated.
+     *
+     * @param board The non-terminal board; it's returned to its original state.
+     * @return The value of the board for the player to move.
+     */
+    private int quiesce(SearchBoard board) {
+        char player = board.isMax() ? 'X' : 'O';
+        int standPat = evaluate(board);
+        if (quiescenceNodes >= quiescenceLimit) {
+            return standPat;
+        }
+
+        if (board.winningSpots(player) != 0) {
+            return SearchBoard.WIN;
+        }
+        long threats = board.winningSpots(player == 'X' ? 'O' : 'X');
+        if ((threats & (threats - 1)) != 0) {
+            return -SearchBoard.WIN;
+        } else if (threats != 0) {
+            // Follow the forced block.
+            int move = Long.numberOfTrailingZeros(threats);
+            quiescenceNodes++;
+            stateCount++;
+            board.makeMove(move);
+            int value;
+            if (board.isTerminal()) {
+                value = player == 'X' ? board.utility() : -board.utility();
+            } else {
+                value = -quiesce(board);
+            }
+            board.unmakeMove(move);
+            return value;
+        }
+
+        // A move that makes two threats at once wins, as only one can be
+        // blocked.
+        if (board.forkSpots(player) != 0) {
+            return SearchBoard.WIN;
+        }
+        return standPat;
+    }
+}
@@ -0,0 +1,123 @@
+// File:   SearchEvents.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Java Flight Recorder events emitted by the search engine.
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Holds the Flight Recorder events for the search. All of them are disabled
+ * by default, and none are even created until Flight Recorder has started
+ * (see recorderStarted()), so they cost nothing unless a recording turns
+ * them on, e.g.:
+ *
+ *     java -XX:StartFlightRecording:filename=search.jfr,+ttt.RootSearch#enabled=true -cp bin AIvsAI ...
+ *
+ * The recording still contains the usual GC and CPU events, so slow moves can
+ * be lined up against them in JDK Mission Control or with `jfr print`.
+ */
+public class SearchEvents {
+
+    /**
+     * Creating the first event loads and sets up Flight Recorder, which
+     * takes a few hundred milliseconds, so the search only creates events
+     * once this is true. It is from the start with -XX:StartFlightRecording,
+     * and from the first recording started later (e.g. with jcmd JFR.start).
+     *
+     * @return True if Flight Recorder has started, so that a recording may
+     *         have the events enabled.
+     */
+    public static boolean recorderStarted() {
+        return FlightRecorder.isInitialized();
+    }
+
+    /**
+     * One event per root search (one computer move).
+     */
+    @Name("ttt.RootSearch")
+    @Label("Root Search")
+    @Category({"Tic-Tac-Toe", "Search"})
+    @Description("A complete search from the root for a single move.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class RootSearch extends Event {
+        @Label("Depth Limit")
+        @Description("Depth limit of the search; -1 is a full search.")
+        public int depth;
+
+        @Label("Nodes")
+        @Description("States expanded by the search.")
+        public long nodes;
+
+        @Label("Score")
+        public double score;
+
+        @Label("Best Move")
+        public int bestMove;
+
+        @Label("Alpha-Beta")
+        public boolean alphaBeta;
+    }
+
+    /**
+     * One event per completed iteration of an iterative deepening search.
+     */
+    @Name("ttt.Iteration")
+    @Label("Search Iteration")
+    @Category({"Tic-Tac-Toe", "Search"})
+    @Description("One iteration of an iterative deepening search.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static class Iteration extends Event {
+        @Label("Depth")
+        public int depth;
+
+        @Label("Nodes")
+        @Description("States expanded by this iteration.")
+        public long nodes;
+
+        @Label("Score")
+        public double score;
+
+        @Label("Best Move")
+        public int bestMove;
+    }
+
+    /**
+     * Emitted for subtrees near the root that took longer than the threshold
+     * to search. Only the first few plies are sampled, so this stays cheap
+     * even when enabled.
+     */
+    @Name("ttt.SlowSubtree")
+    @Label("Slow Subtree")
+    @Category({"Tic-Tac-Toe", "Search"})
+    @Description("A subtree near the root whose search exceeded the threshold.")
+    @Enabled(false)
+    @Threshold("20 ms")
+    @StackTrace(false)
+    public static class Subtree extends Event {
+        /** Deepest ply (counting the root as 0) at which subtrees are timed. */
+        public static final int MAX_PLY = 2;
+
+        @Label("Ply")
+        public int ply;
+
+        @Label("Move")
+        @Description("The move leading into this subtree.")
+        public int move;
+
+        @Label("Nodes")
+        public long nodes;
+
+        @Label("Score")
+        public double score;
+    }
+}
@@ -0,0 +1,64 @@
+// File:   SearchResult.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Describes the outcome of a search by the search engine.
+
+/**
+ * The move a search chose and what it learned about it.
+ */
+public class SearchResult {
+    public int move;
+    public int score;
+    public int depth;
+    public long nodes;
+    // How exact score is, as a TranspositionTable bound from X's point of
+    // view: EXACT, UPPER (X gets at most score) or LOWER (at least score).
+    public int bound = TranspositionTable.EXACT;
+    // The moves the search expects, starting with move; may be cut short.
+    public int[] line = new int[0];
+
+    /**
+     * @param move The spot to take, starting at 0, or -1 if there is no move.
+     * @param score The value of the move, from X's point of view.
+     * @param depth The depth searched; -1 for a full search.
+     * @param nodes The number of states the search expanded.
+     */
+    public SearchResult(int move, int score, int depth, long nodes) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    /**
+     * @return The result on one line, with moves labelled as in the games'
+     *         keys (see label()), e.g. "6 (+12)  6 B 3 9" or "1 (<= 0)  1 G".
+     */
+    public String describeLine() {
+        String prefix = bound == TranspositionTable.UPPER ? "<= " :
+            bound == TranspositionTable.LOWER ? ">= " : score > 0 ? "+" : "";
+        StringBuilder description = new StringBuilder();
+        description.append(label(move)).append(" (").append(prefix).append(score).append(") ");
+        for (int spot : line) {
+            description.append(' ').append(label(spot));
+        }
+        return description.toString();
+    }
+
+    /**
+     * @param spot A spot, starting at 0.
+     * @return The spot's label in the key the games print, and that
+     *         ExtremeTicTacToe takes as input: 1 to 9, then A to G.
+     */
+    public static char label(int spot) {
+        return spot < 9 ? (char) ('1' + spot) : (char) ('A' + spot - 9);
+    }
+
+    /**
+     * @return A description of this result.
+     */
+    public String toString() {
+        return "[\n\tmove: "+ (move + 1) +",\n\tutility: "+ score +",\n\tdepth: "+ depth +
+            ",\n\tnodes: "+ nodes +"\n]";
+    }
+}
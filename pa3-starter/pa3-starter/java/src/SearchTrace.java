@@ -0,0 +1,112 @@
+// File:   SearchTrace.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Writes a compact binary trace of a Minimax search to a file.
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A binary trace of a search. Each record is a fixed RECORD_SIZE bytes:
+ *
+ *     byte  ply      ply of the node the record describes (root = 0)
+ *     byte  flags    KIND_* of the node plus the CUTOFF/RETURN bits
+ *     short move     move leading into the node
+ *     float alpha    bounds the node was searched with
+ *     float beta
+ *     float score    utility returned for the node
+ *
+ * Records are written in the same order the logging feature prints its
+ * lines, so TraceViewer can rebuild the indented text view offline. Nothing
+ * here is touched unless a trace has been handed to Minimax.setTrace().
+ */
+public class SearchTrace implements Closeable {
+    public static final int MAGIC = 0x54545452; // "TTTR"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 16;
+
+    // Who moves at the node, and whether the search prunes; named in logs
+    // after the methods Minimax used to have for each.
+    public static final int KIND_MAX = 0;
+    public static final int KIND_MIN = 1;
+    public static final int KIND_MAX_ALPHA_BETA = 2;
+    public static final int KIND_MIN_ALPHA_BETA = 3;
+    public static final int KIND_MASK = 0x3;
+    /** The node caused an alpha-beta cutoff in its parent. */
+    public static final int CUTOFF = 0x4;
+    /** The record is the value a node returned rather than a child. */
+    public static final int RETURN = 0x8;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long records;
+
+    /**
+     * Creates (or truncates) the trace file and writes its header.
+     *
+     * @param path Where to write the trace.
+     * @throws IOException If the file can't be opened.
+     */
+    public SearchTrace(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 4096);
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    /**
+     * Appends one record to the trace.
+     *
+     * @param ply Ply of the node the record describes.
+     * @param flags One of the KIND_* values, optionally or'ed with CUTOFF or
+     *              RETURN.
+     * @param move Move leading into the node.
+     * @param alpha Lower bound the node was searched with.
+     * @param beta Upper bound the node was searched with.
+     * @param score Utility returned for the node.
+     */
+    public void record(int ply, int flags, int move, double alpha, double beta, double score) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            flush();
+        }
+        buffer.put((byte) ply).put((byte) flags).putShort((short) move)
+            .putFloat((float) alpha).putFloat((float) beta).putFloat((float) score);
+        records++;
+    }
+
+    /**
+     * @return The number of records written so far.
+     */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Writes any buffered records out to the file.
+     */
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the trace and closes the file.
+     */
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
@@ -0,0 +1,120 @@
+// File:   SearchTreeReader.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Streams the records of a tree written by SearchTreeWriter.
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a search tree one record at a time. The fields hold the current
+ * record and are overwritten by each call to next(), so reading a tree of
+ * any size only needs the reader's small buffer.
+ */
+public class SearchTreeReader implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    public final int cells;
+    public final int maxPly;
+
+    // The current record.
+    public long board;
+    public long nodes;
+    public int ply;
+    public int flags;
+    public int move;
+    public float alpha;
+    public float beta;
+    public float score;
+
+    /**
+     * Opens a tree file and reads its header.
+     *
+     * @param path The file written by SearchTreeWriter.
+     * @throws IOException If the file can't be read or isn't a search tree.
+     */
+    public SearchTreeReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer = ByteBuffer.allocateDirect(SearchTreeWriter.RECORD_SIZE * 4096);
+        buffer.limit(0);
+        if (!fill(SearchTreeWriter.HEADER_SIZE) || buffer.getInt() != SearchTreeWriter.MAGIC
+                || buffer.getInt() != SearchTreeWriter.VERSION) {
+            channel.close();
+            throw new IOException(path +" is not a search tree.");
+        }
+        cells = buffer.getInt();
+        maxPly = buffer.getInt();
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given number of bytes.
+     *
+     * @return False if the file ended first.
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return False once every record has been read.
+     * @throws IOException If the file can't be read.
+     */
+    public boolean next() throws IOException {
+        if (!fill(SearchTreeWriter.RECORD_SIZE)) {
+            return false;
+        }
+        board = buffer.getLong();
+        nodes = buffer.getInt() & 0xffffffffL;
+        ply = buffer.get() & 0xff;
+        flags = buffer.get() & 0xff;
+        move = buffer.getShort();
+        alpha = buffer.getFloat();
+        beta = buffer.getFloat();
+        score = buffer.getFloat();
+        return true;
+    }
+
+    /**
+     * @param flag One of the SearchTreeWriter flags.
+     * @return True if the current record has the flag set.
+     */
+    public boolean is(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * @return The current record's board as a row-major string of X, O and
+     *         '.' (open) characters.
+     */
+    public String boardString() {
+        char[] spots = new char[cells];
+        for (int i = 0; i < cells; i++) {
+            spots[i] = (board >>> i & 1) != 0 ? 'X' : (board >>> (i + 32) & 1) != 0 ? 'O' : '.';
+        }
+        return new String(spots);
+    }
+
+    /**
+     * Closes the file.
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+}
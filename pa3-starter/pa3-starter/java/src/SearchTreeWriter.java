@@ -0,0 +1,139 @@
+// File:   SearchTreeWriter.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Exports the tree searched by Minimax to a compact binary file.
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes one fixed-size record per searched node, in post-order (a node is
+ * written after all of its children). Post-order lets the writer stream the
+ * tree without holding any of it in memory, and lets a reader know the size
+ * of a subtree as soon as it reaches the subtree's root. The layout is:
+ *
+ *     header:  int MAGIC, int VERSION, int cells, int maxPly
+ *     record:  long  board     X's spots in the low 32 bits, O's in the high
+ *              int   nodes     size of the subtree rooted here (saturates)
+ *              byte  ply       root = 0
+ *              byte  flags     MAX, TERMINAL, HORIZON and CUTOFF bits
+ *              short move      move leading into this node
+ *              float alpha     bounds the node was searched with
+ *              float beta
+ *              float score     utility returned for the node
+ *
+ * Every search appends its own tree, so a game's worth of moves can go in one
+ * file; each tree ends with its ply 0 record.
+ */
+public class SearchTreeWriter implements Closeable {
+    public static final int MAGIC = 0x54545454; // "TTTT"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 28;
+
+    /** X (the max player) is to move at this node. */
+    public static final int MAX = 0x1;
+    /** The node is a won, lost or drawn position. */
+    public static final int TERMINAL = 0x2;
+    /** The node was scored by the evaluation function at the depth limit. */
+    public static final int HORIZON = 0x4;
+    /** Alpha-beta pruning skipped some of the node's successors. */
+    public static final int CUTOFF = 0x8;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int maxPly;
+    private long records;
+
+    /**
+     * Creates (or truncates) the tree file and writes its header.
+     *
+     * @param path Where to write the tree.
+     * @param cells How many spots the board has (at most 32).
+     * @param maxPly The deepest ply to record; deeper nodes still count toward
+     *               their ancestors' subtree sizes. Use -1 to record every ply.
+     * @throws IOException If the file can't be opened.
+     * @throws IllegalArgumentException If the board has more than 32 spots;
+     *         each player's marks are recorded in 32 bits.
+     */
+    public SearchTreeWriter(Path path, int cells, int maxPly) throws IOException {
+        if (cells > 32) {
+            throw new IllegalArgumentException("Cells must be at most 32: "+ cells);
+        }
+        this.maxPly = maxPly < 0 ? Integer.MAX_VALUE : maxPly;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 4096);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(cells).putInt(maxPly);
+    }
+
+    /**
+     * @return The deepest ply that gets recorded.
+     */
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    /**
+     * Appends the record of a node whose search just finished.
+     *
+     * @param state The node's state.
+     * @param ply The node's ply.
+     * @param depth The remaining depth the node was searched with.
+     * @param nodes The number of states in the node's subtree, itself included.
+     * @param alpha Lower bound the node was searched with.
+     * @param beta Upper bound the node was searched with.
+     * @param score Utility returned for the node.
+     * @param cutoff True if pruning skipped some of the node's successors.
+     */
+    public void record(GameState state, int ply, int depth, long nodes,
+            double alpha, double beta, double score, boolean cutoff) {
+        boolean terminal = state.isTerminal();
+        int flags = (state.isMax() ? MAX : 0) | (terminal ? TERMINAL : 0) |
+            (depth == 0 && !terminal ? HORIZON : 0) | (cutoff ? CUTOFF : 0);
+        long board = state.playerMask('X') | state.playerMask('O') << 32;
+
+        if (buffer.remaining() < RECORD_SIZE) {
+            flush();
+        }
+        buffer.putLong(board).putInt((int) Math.min(nodes, Integer.MAX_VALUE))
+            .put((byte) ply).put((byte) flags).putShort((short) state.getMove())
+            .putFloat((float) alpha).putFloat((float) beta).putFloat((float) score);
+        records++;
+    }
+
+    /**
+     * @return The number of records written so far.
+     */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Writes any buffered records out to the file.
+     */
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the tree and closes the file.
+     */
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
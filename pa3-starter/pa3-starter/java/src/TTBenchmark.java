@@ -0,0 +1,153 @@
+// File:   TTBenchmark.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Measures how the shared transposition table holds up under many threads.
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hammers one TranspositionTable from 1 to N threads at once, the way Lazy
+ * SMP helpers share a table, and reports the lookups and stores per second
+ * with and without a lock around every call. Every stored value is worked
+ * out from its key, so a lookup that returns an entry torn by two threads
+ * writing at once (and wrongly passing the xor check) is caught and
+ * counted.
+ */
+public class TTBenchmark {
+    /**
+     * @return The value stored for a key, so lookups can be checked.
+     */
+    private static int valueFor(long key) {
+        return (int) (key >>> 40) & 0xFFFF;
+    }
+
+    /**
+     * Runs threads that each make a number of lookups and stores, three
+     * lookups to each store, on keys drawn from a fixed set.
+     *
+     * @return The time taken, in nanoseconds.
+     */
+    private static long run(TranspositionTable table, int threads, int operations, long[] keys,
+            boolean locked, AtomicLong hits, AtomicLong torn) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                long found = 0;
+                long bad = 0;
+                for (int i = 0; i < operations; i++) {
+                    long key = keys[random.nextInt(keys.length)];
+                    long entry;
+                    if ((i & 3) == 0) {
+                        int depth = random.nextInt(12);
+                        if (locked) {
+                            synchronized (table) {
+                                table.store(key, (int) key & 15, valueFor(key), depth, TranspositionTable.EXACT);
+                            }
+                        } else {
+                            table.store(key, (int) key & 15, valueFor(key), depth, TranspositionTable.EXACT);
+                        }
+                        continue;
+                    }
+                    if (locked) {
+                        synchronized (table) {
+                            entry = table.probe(key);
+                        }
+                    } else {
+                        entry = table.probe(key);
+                    }
+                    if (entry != 0) {
+                        found++;
+                        if (TranspositionTable.value(entry) != valueFor(key) ||
+                                TranspositionTable.move(entry) != ((int) key & 15)) {
+                            bad++;
+                        }
+                    }
+                }
+                hits.addAndGet(found);
+                torn.addAndGet(bad);
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args See USAGE.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String USAGE = "Usage: java TTBenchmark [-h] [-b <bits>] [-t <threads>] [-n <operations>] [-k <keys>]\n" +
+                "  -h: Display this help message.\n" +
+                "  -b <bits>: The table holds 2^bits entries. (default: 16)\n" +
+                "  -t <threads>: Most threads to try. (default: the number of processors)\n" +
+                "  -n <operations>: Lookups and stores per thread. (default: 5000000)\n" +
+                "  -k <keys>: Distinct positions to look up and store. (default: 2^bits)\n";
+
+        int bits = 16;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int operations = 5000000;
+        int keyCount = -1;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-h")) {
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for "+ args[i] +".");
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            String value = args[++i];
+            try {
+                switch (args[i - 1]) {
+                    case "-b": bits = Integer.parseInt(value); break;
+                    case "-t": maxThreads = Integer.parseInt(value); break;
+                    case "-n": operations = Integer.parseInt(value); break;
+                    case "-k": keyCount = Integer.parseInt(value); break;
+                    default:
+                        System.out.println("Unknown option "+ args[i - 1] +".");
+                        System.out.println(USAGE);
+                        System.exit(0);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid value for "+ args[i - 1] +": "+ value);
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+        }
+
+        long[] keys = new long[keyCount > 0 ? keyCount : 1 << bits];
+        SplittableRandom random = new SplittableRandom(460);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+
+        System.out.println("Threads  Lock-free (M ops/s)  Locked (M ops/s)  Hit rate  Torn");
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            double[] rates = new double[2];
+            AtomicLong hits = new AtomicLong();
+            AtomicLong torn = new AtomicLong();
+            for (int locked = 0; locked < 2; locked++) {
+                TranspositionTable table = new TranspositionTable(bits);
+                // Once to warm up, once to time.
+                run(table, threads, operations / 10, keys, locked == 1, new AtomicLong(), new AtomicLong());
+                long nanos = run(table, threads, operations, keys, locked == 1,
+                    locked == 0 ? hits : new AtomicLong(), torn);
+                rates[locked] = (double) threads * operations * 1000 / nanos;
+            }
+            double lookups = threads * (operations - (operations + 3) / 4.0);
+            System.out.printf("%7d  %19.1f  %16.1f  %7.1f%%  %4d%n", threads, rates[0], rates[1],
+                100 * hits.get() / lookups, torn.get());
+        }
+    }
+}
@@ -6,8 +6,8 @@
 
 // Added support for depth limiting and alpha-beta pruning.
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /**
@@ -15,257 +15,8 @@ import java.util.Scanner;
  */
 public class TicTacToe {
 
-    /**
-     * Represents a specific state of a tic-tac-toe board (the positions of the
-     * X's, O's, and open spots).
-     */
-    public class TicTacToeState implements GameState {
-        public char[] board;
-        public char lastPlayer;
-        public int move;
-
-        /**
-         * Initializes a tic-tac-toe state.
-         * 
-         * @param board Should be 9 characters long, each character 
-         *              representing one spot on the board. Valid 
-         *              characters are: X, O, and ' ' (space).
-         * @param lastPlayer The player who made the most recent move.
-         * @param move The spot selected in the most recent move.
-         */
-        public TicTacToeState(char[] board, char lastPlayer, int move){
-            this.board = board;
-            this.lastPlayer = lastPlayer;
-            this.move = move;
-        }
-
-        /**
-         * Updates the given spot on the board with the player's mark.
-         * 
-         * @param player The player who made the most recent move (should be X 
-         *               or O)
-         * @param move The spot selected in the most recent move, should be in
-         *             the range [1,9].
-         */
-        public void makeMove(char player, int move){
-            board[move-1] = player;
-            this.move = move;
-            this.lastPlayer = player;
-        }
-        
-        /**
-         * @return A summary of this state as a string, including the board, 
-         *         player, and action.
-         */
-        public String toString(){
-            return "[\n\tboard: "+ Arrays.toString(board) +",\n\tplayer: "+
-                lastPlayer +",\n\tmove: "+ move +"\n]";
-        }
-
-        /**
-         * @return A deep copy of this state.
-         */
-        public TicTacToeState clone(){
-            return new TicTacToeState(board.clone(), lastPlayer, move);
-        }
-
-        /**
-         * @return Returns true if the given tic-tac-toe state is terminal:
-         *      - three Xs or Os in a row (vertically, horizontally, or diagonally)
-         *      - all 9 spots are filled
-         */
-        public boolean isTerminal() {
-            boolean isFilled = true;
-
-            // Check if the board if filled.
-            for(int i = 0; i < board.length; i++){
-                if(board[i] == ' '){
-                    isFilled = false;
-                    break;
-                }
-            }
-
-            // True if the board is filled or there are three X's or O's in a row.
-            return
-                // If we don't have three in a row, but the whole board is full, then
-                // there's a draw.
-                isFilled || utility() != 0;
-        }
-
-            
-        /**
-         * Finds the utility of a terminal state. This 1 if X has three in a row,
-         * -1 if O has three in a row, and 0 otherwise.
-         * 
-         * @return 1 if X wins, -1 if O wins, 0 if a draw.
-         */
-        public double utility() {
-            // Three in a row by row.
-            if(board[0] == board[1] && board[0] == board[2] && board[0] != ' ')
-                return board[0] == 'X' ? 1 : -1;
-            
-            if(board[3] == board[4] && board[3] == board[5] && board[3] != ' ')
-                return board[3] == 'X' ? 1 : -1;
-
-            if(board[6] == board[7] && board[6] == board[8] && board[6] != ' ')
-                return board[6] == 'X' ? 1 : -1;
-
-
-            // Three in a row by column.
-            if(board[0] == board[3] && board[0] == board[6] && board[0] != ' ')
-                return board[0] == 'X' ? 1 : -1;
-
-            if(board[1] == board[4] && board[1] == board[7] && board[1] != ' ')
-                return board[1] == 'X' ? 1 : -1;
-
-            if(board[2] == board[5] && board[2] == board[8] && board[2] != ' ')
-                return board[2] == 'X' ? 1 : -1;
-
-
-            // Three in a row by diagonal.
-            if(board[0] == board[4] && board[0] == board[8] && board[0] != ' ')
-                return board[0] == 'X' ? 1 : -1;
-
-            if(board[2] == board[4] && board[2] == board[6] && board[2] != ' ')
-                return board[2] == 'X' ? 1 : -1;
-
-            // If nothing else, draw.
-            return 0;
-        }
-
-        /**
-         * Evaluates a non-terminal state. Each column that has two X's or two O's
-         * and one open space yields a value of 1 (for X) or -1 (for O). This is
-         * summed across the three columns for the final value.
-         * 
-         * @return A positive return value favors X's chances of winning, negative
-         * favors O's, an 0 is an expected draw.
-         */
-        public double eval(){
-            double total = 0;
-
-            // Two in a row by column.
-            if(board[0] == board[3] && board[6] == ' ' || board[0] == board[6] && 
-                    board[3] == ' ' || board[3] == board[6] && board[0] == ' ')
-                total += board[0] == 'X' || board[3] == 'X' ? 1 : -1;
-
-            if(board[1] == board[4] && board[7] == ' ' || board[1] == board[7] && 
-                    board[4] == ' ' || board[4] == board[7] && board[1] == ' ')
-                total += board[1] == 'X' || board[4] == 'X' ? 1 : -1;
-
-            if(board[2] == board[5] && board[8] == ' ' || board[2] == board[8] && 
-                    board[5] == ' ' || board[5] == board[8] && board[2] == ' ')
-                total += board[2] == 'X' || board[5] == 'X' ? 1 : -1;
-
-            return total;
-        }
-
-        /**
-         * Generates a list of successors for the current state. These are all
-         * possible moves of the next player into blank spaces, where the "next
-         * player" is whichever player isn't state.player.
-         * 
-         * @return A list of all possible successor of the given state for the next
-         *         player.
-         */
-        public ArrayList<TicTacToeState> successors() {
-            ArrayList<TicTacToeState> successorStates = new ArrayList<TicTacToeState>();
-            TicTacToeState successorState;
-            char nextPlayer = lastPlayer == 'X' ? 'O' : 'X';
-
-            for(int i = 0; i < board.length; i++){
-                if(board[i] == ' '){
-                    successorState = clone();
-                    successorState.makeMove(nextPlayer, i+1);
-                    successorStates.add(successorState);
-                }
-            }
-            
-            return successorStates;
-        }
-
-        /**
-         * Determines if this is a "max" state, meaning a state for which Minimax
-         * should be maximizing over values of successors, meaning it's X's turn
-         * next.
-         * 
-         * @return True if the next player is X.
-         */
-        public boolean isMax() {
-            // If the last player is O, then X is now going and therefore we're in
-            // a max node.
-            return lastPlayer == 'O'; 
-        }
-
-        /**
-         * A helper function that simply wraps a move (extracted from the given 
-         * state) and the utility value of this terminal state.
-         * 
-         * @return state.move and utility wrapped up in an easy to use object.
-         */
-        public TicTacToeActionUtility getActionUtility() {
-            return new TicTacToeActionUtility(move, utility());
-        }
-
-        /**
-         * A helper function that simply wraps a move (extracted from the given 
-         * state) and the evaluation value for this state.
-         * 
-         * @return state.move and utility wrapped up in an easy to use object.
-         */
-        public TicTacToeActionUtility getActionEval() {
-            return new TicTacToeActionUtility(move, eval());
-        }
-
-        
-        /**
-         * A helper function that simply wraps a move (extracted from the given 
-         * state) and the evaluation value for this state.
-         * 
-         * @return state.move and utility wrapped up in an easy to use object.
-         */
-        public TicTacToeActionUtility getActionUtility(double utility) {
-            return new TicTacToeActionUtility(move, utility);
-        }
-
-    }
-
-    /**
-     * Serves as a wrapper for a tic-tac-toe move and the utility associated
-     * with it.
-     */
-    public class TicTacToeActionUtility implements ActionUtility  {
-        public double utility;
-        public int move;
-
-        /**
-         * Initializes the action and utility.
-         * @param move The spot selected in the most recent move.
-         * @param utility The utility value associated with the move.
-         */
-        public TicTacToeActionUtility(int move, double utility){
-            this.move = move;
-            this.utility = utility;
-        }
-
-        /**
-         * @return The utility of this move.
-         */
-        public double getUtility() {
-            return utility;
-        }
-
-        /**
-         * @return A description of this move and utility.
-         */
-        public String toString(){
-            return "[\n\tmove: "+ move +",\n\tutility: "+ utility +"\n]";
-        }
-    }
-
-
     // TicTacToe data members.
-    TicTacToeState currentState;
+    TicTacToeBoard board;
     int loggingDepth;
     Scanner input;
     Minimax minimax;
@@ -287,52 +38,65 @@ public class TicTacToe {
         System.out.println("useAlphaBeta: "+ useAlphaBeta +", useDepthLimit: "+ useDepthLimit +", depth: "+ depth +", loggingDepth: "+ loggingDepth);
     }
 
+    /**
+     * Sets how few open spots a board must have before the computer solves
+     * it exactly rather than searching it to the depth limit.
+     * 
+     * @param endgameSpots The most open spots a board can have to be solved;
+     *                     0 to never solve one.
+     */
+    public void setEndgameSpots(int endgameSpots) {
+        SearchEngine engine = new SearchEngine(useAlphaBeta);
+        engine.setEndgameSpots(endgameSpots);
+        minimax.setEngine(engine);
+    }
+
     /**
      * Starts a tic-tac-toe game between the user and the computer.
      */
     public void run(){
         int userMove, aiMove;
-        currentState = new TicTacToeState("         ".toCharArray(), '?', 0);
+        board = new TicTacToeBoard();
         System.out.println("Key: ");
         printBoard("123456789".toCharArray());
         System.out.println();
-        printBoard(currentState.board);
+        printBoard(board.toCharArray());
 
         // Until the game is over.
         while(true){
             // Human's turn.
             System.out.print("Your turn; enter the space # where you'd like to put your X: ");
             userMove = input.nextInt();
-            while(currentState.board[userMove-1] != ' '){
+            while(board.spot(userMove-1) != ' '){
                 System.out.print("That spot is taken; try again: ");
                 userMove = input.nextInt();
             }
-            currentState.makeMove('X', userMove);
+            board.makeMove(userMove - 1);
 
-            printBoard(currentState.board);
+            printBoard(board.toCharArray());
 
             // Check if the human won.
-            if(currentState.isTerminal())
+            if(board.isTerminal())
                 break;
 
-            // System.out.println(currentState);
+            // System.out.println(board);
             // break;
 
             // Computer's turn.
             System.out.println("\nComputer's turn:");
-            aiMove = ((TicTacToeActionUtility) minimax.value(currentState, depth, loggingDepth, "", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY)).move;
+            aiMove = minimax.search(new SearchBoardState(board.copy()), depth, loggingDepth).getMove();
             System.out.println("States expanded: " + Minimax.getStateCount());
             Minimax.resetStateCount();
-            currentState.makeMove('O', aiMove);
+            board.makeMove(aiMove - 1);
 
-            printBoard(currentState.board);
+            printBoard(board.toCharArray());
 
             // Check if the AI won.
-            if(currentState.isTerminal())
+            if(board.isTerminal())
                 break;
         }
 
-        System.out.println("Game over. Utility: "+ currentState.utility());
+        System.out.println("Game over. Utility: "+ (double) board.utility() / SearchBoard.WIN);
 
     }
 
@@ -360,17 +124,25 @@ public class TicTacToe {
      * @param args Ignored.
      */
         public static void main(String[] args) {
-            String USAGE = "Usage: java TicTacToe [-h] [-a] [-d <depth>] [-l <loggingDepth>]\n" +
+            String USAGE = "Usage: java TicTacToe [-h] [-a] [-d <depth>] [-l <loggingDepth>] [-t <traceFile>] [-e <treeFile>] [-E <treeDepth>] [-s <spots>]\n" +
                     "All parameters are optional.\n" +
                     "  -h: Display this help message.\n" +
                     "  -a: Enable alpha-beta pruning.\n" +
                     "  -d <depth>: Specify the depth for depth-limited minimax.\n" +
-                    "  -l <loggingDepth>: Specify the logging depth.\n";
+                    "  -l <loggingDepth>: Specify the logging depth.\n" +
+                    "  -t <traceFile>: Write a binary trace of each search (view it with TraceViewer).\n" +
+                    "  -e <treeFile>: Export each search tree (explore it with TreeExplorer).\n" +
+                    "  -E <treeDepth>: Only export the tree down to this ply.\n" +
+                    "  -s <spots>: Solve boards with this many open spots or fewer exactly (default 0, never).\n";
 
             int loggingDepth = 0;
+            String traceFile = null;
+            String treeFile = null;
+            int treeDepth = -1;
             boolean useAlphaBeta = false;
             boolean useDepthLimit = false;
             int depth = -1;
+            int endgameSpots = -1;
 
             if (args.length > 0) {
                 if (args[0].equals("-h")) {
@@ -399,11 +171,84 @@ public class TicTacToe {
                             System.exit(0);
                         }
                     }
+                    if (args[i].equals("-t")) {
+                        if (i + 1 < args.length) {
+                            traceFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid trace file value.");
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-e")) {
+                        if (i + 1 < args.length) {
+                            treeFile = args[i + 1];
+                        } else {
+                            System.out.println("Invalid tree file value.");
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-E")) {
+                        if (i + 1 < args.length) {
+                            treeDepth = Integer.parseInt(args[i + 1]);
+                        } else {
+                            System.out.println("Invalid tree depth value.");
+                            System.exit(0);
+                        }
+                    }
+                    if (args[i].equals("-s")) {
+                        if (i + 1 < args.length) {
+                            endgameSpots = Integer.parseInt(args[i + 1]);
+                        } else {
+                            System.out.println("Invalid endgame spots value.");
+                            System.exit(0);
+                        }
+                    }
                 }
             }
 
             TicTacToe tictactoe = new TicTacToe(loggingDepth, useAlphaBeta, useDepthLimit, depth);
+            if (endgameSpots >= 0) {
+                tictactoe.setEndgameSpots(endgameSpots);
+            }
+            SearchTrace trace = null;
+            if (traceFile != null) {
+                try {
+                    trace = new SearchTrace(Paths.get(traceFile));
+                } catch (IOException e) {
+                    System.out.println("Could not open trace file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                Minimax.setTrace(trace);
+            }
+            SearchTreeWriter tree = null;
+            if (treeFile != null) {
+                try {
+                    tree = new SearchTreeWriter(Paths.get(treeFile), 9, treeDepth);
+                } catch (IOException e) {
+                    System.out.println("Could not open tree file: "+ e.getMessage());
+                    System.exit(0);
+                }
+                Minimax.setTree(tree);
+            }
+
             tictactoe.run();
+
+            if (trace != null) {
+                try {
+                    trace.close();
+                    System.out.println("Wrote "+ trace.getRecordCount() +" trace records to "+ traceFile);
+                } catch (IOException e) {
+                    System.out.println("Could not write trace file: "+ e.getMessage());
+                }
+            }
+            if (tree != null) {
+                try {
+                    tree.close();
+                    System.out.println("Wrote "+ tree.getRecordCount() +" tree records to "+ treeFile);
+                } catch (IOException e) {
+                    System.out.println("Could not write tree file: "+ e.getMessage());
+                }
+            }
         }
     }
 
@@ -0,0 +1,70 @@
+// File:   TicTacToeBoard.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: The classic 3x3 tic-tac-toe board for the search engine.
+
+/**
+ * A 3x3 tic-tac-toe board. A player wins with three in a row, column or
+ * diagonal.
+ */
+public class TicTacToeBoard extends LineBoard {
+    public static final Geometry GEOMETRY = new Geometry(3, 3, new long[] {
+        // Rows.
+        0x007, 0x038, 0x1C0,
+        // Columns.
+        0x049, 0x092, 0x124,
+        // Diagonals.
+        0x111, 0x054
+    });
+
+    /**
+     * Creates an empty board.
+     */
+    public TicTacToeBoard() {
+        this("         ".toCharArray(), -1);
+    }
+
+    /**
+     * Creates a board from a position.
+     *
+     * @param board Should be 9 characters long, each character representing
+     *              one spot on the board. Valid characters are: X, O, and ' '.
+     * @param lastMove The spot (starting at 0) of the most recent move, or -1.
+     */
+    public TicTacToeBoard(char[] board, int lastMove) {
+        super(GEOMETRY, board, lastMove);
+    }
+
+    public TicTacToeBoard copy() {
+        TicTacToeBoard copy = new TicTacToeBoard();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Evaluates a non-terminal board. Each column that has two X's or two O's
+     * and one open space yields a value of 1 (for X) or -1 (for O). This is
+     * summed across the three columns for the final value.
+     *
+     * @return A positive value favors X, negative favors O.
+     */
+    public int eval() {
+        char[] board = spots;
+        int total = 0;
+
+        // Two in a row by column.
+        if(board[0] == board[3] && board[6] == ' ' || board[0] == board[6] && 
+                board[3] == ' ' || board[3] == board[6] && board[0] == ' ')
+            total += board[0] == 'X' || board[3] == 'X' ? 1 : -1;
+
+        if(board[1] == board[4] && board[7] == ' ' || board[1] == board[7] && 
+                board[4] == ' ' || board[4] == board[7] && board[1] == ' ')
+            total += board[1] == 'X' || board[4] == 'X' ? 1 : -1;
+
+        if(board[2] == board[5] && board[8] == ' ' || board[2] == board[8] && 
+                board[5] == ' ' || board[5] == board[8] && board[2] == ' ')
+            total += board[2] == 'X' || board[5] == 'X' ? 1 : -1;
+
+        return total;
+    }
+}
@@ -0,0 +1,97 @@
+// File:   TraceViewer.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Renders a binary search trace as the indented Minimax logging view.
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Reads a trace written by SearchTrace and prints it the way Minimax's
+ * logging feature does, one ply of indentation per level of the tree. The
+ * trace is streamed, so traces of any size can be viewed.
+ */
+public class TraceViewer {
+    private static final String[] KIND_NAMES =
+        {"maxValue", "minValue", "maxValueAlphaBeta", "minValueAlphaBeta"};
+
+    /**
+     * Prints the records of a trace file.
+     *
+     * @param file The trace file to read.
+     * @param loggingDepth How many levels down the tree to print, as with the
+     *                     -l option of the games; use -1 to print everything.
+     * @param out Where to print.
+     * @return The number of records read.
+     * @throws IOException If the file can't be read or isn't a trace.
+     */
+    public static long render(String file, int loggingDepth, PrintStream out) throws IOException {
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != SearchTrace.MAGIC || in.readInt() != SearchTrace.VERSION) {
+                throw new IOException(file +" is not a search trace.");
+            }
+
+            while (true) {
+                int ply, flags, move;
+                float alpha, beta, score;
+                try {
+                    ply = in.readUnsignedByte();
+                    flags = in.readUnsignedByte();
+                    move = in.readShort();
+                    alpha = in.readFloat();
+                    beta = in.readFloat();
+                    score = in.readFloat();
+                } catch (EOFException e) {
+                    break;
+                }
+                count++;
+
+                String name = KIND_NAMES[flags & SearchTrace.KIND_MASK];
+                if ((flags & SearchTrace.RETURN) != 0) {
+                    // A method's own result is printed at the method's level.
+                    if (loggingDepth < 0 || ply < loggingDepth) {
+                        String prefix = " ".repeat(ply);
+                        out.println(prefix + name +": returning move "+ move +", utility "+ score);
+                    }
+                } else if (loggingDepth < 0 || ply <= loggingDepth) {
+                    // A child is printed at its parent's level.
+                    String prefix = " ".repeat(ply - 1);
+                    out.println(prefix + name +": move "+ move +" [alpha: "+ alpha +", beta: "+ beta +"]");
+                    out.println(prefix +"utility: "+ score +
+                        ((flags & SearchTrace.CUTOFF) != 0 ? " (cutoff)" : ""));
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Prints a trace file to standard out.
+     * @param args The trace file and, optionally, the logging depth.
+     */
+    public static void main(String[] args) {
+        String USAGE = "Usage: java TraceViewer <traceFile> [loggingDepth]\n" +
+                "  traceFile: A trace written with the -t option of the games.\n" +
+                "  loggingDepth: How many levels of the tree to print (default: all).\n";
+
+        if (args.length < 1 || args[0].equals("-h")) {
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+
+        int loggingDepth = args.length > 1 ? Integer.parseInt(args[1]) : -1;
+        try {
+            long count = render(args[0], loggingDepth, System.out);
+            System.out.println("Records: "+ count);
+        } catch (IOException e) {
+            System.out.println("Could not read trace: "+ e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+// File:   TranspositionTable.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Remembers what the search engine has learned about positions.
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results, indexed by board hash. Entries
+ * come in buckets of two, side by side in one long[] so a lookup touches a
+ * single cache line. The first entry of a bucket keeps the deepest result
+ * stored there this search; the second always takes the latest result that
+ * didn't go in the first, so new positions still get remembered when the
+ * first entry holds something deeper. Each entry is two longs, the
+ * position's hash xor'ed with a packed data word, and the data word itself:
+ *
+ *     bits  0-7   best move + 1 (0 if none)
+ *     bits  8-15  remaining depth searched (UNLIMITED for a full search)
+ *     bits 16-17  bound: EXACT, LOWER or UPPER
+ *     bit  18     set in every stored entry
+ *     bits 24-31  generation (search) the entry was stored in
+ *     bits 32-63  value, for the player to move
+ *
+ * so lookups return a single long and never allocate. Use the static
+ * helpers to unpack it. Several threads may share a table without locking:
+ * an entry half written by one thread while another reads it doesn't xor
+ * back to the hash, so it reads as missing.
+ *
+ * A table is meant to last a whole game. Each search starts a new
+ * generation; entries from earlier generations are still used, but give way
+ * to anything stored by the current search, so stale lines age out instead
+ * of crowding the table. That only works if the generation moves on once
+ * per search, so only the engine that owns a search may call newSearch(),
+ * never the helper threads searching alongside it.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+    /** Depth recorded for searches without a depth limit. */
+    public static final int UNLIMITED = 255;
+
+    private static final long STORED = 1L << 18;
+
+    // Bucket after bucket of: first entry's xor'ed key, its data word, then
+    // the second entry's.
+    private final long[] table;
+    private final int mask;
+    // Written by the search's owner, read by every thread storing results.
+    private volatile int generation;
+
+    /**
+     * @param bits The table holds 2^bits entries (16 bytes each); at least 1.
+     */
+    public TranspositionTable(int bits) {
+        if (bits < 1 || bits > 28) {
+            throw new IllegalArgumentException("Table size must be 1 to 28 bits, not "+ bits +".");
+        }
+        table = new long[2 << bits];
+        mask = (1 << bits - 1) - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key The board's hash.
+     * @return The entry's data word, or 0 if the position isn't stored.
+     */
+    public long probe(long key) {
+        int bucket = ((int) key & mask) << 2;
+        long entry = table[bucket + 1];
+        if ((table[bucket] ^ entry) == key) {
+            return entry;
+        }
+        entry = table[bucket + 3];
+        return (table[bucket + 2] ^ entry) == key ? entry : 0;
+    }
+
+    /**
+     * Starts a new generation; call once per search, from the engine that
+     * owns it. Helper threads sharing the table must not call it, or the
+     * search's own entries would look old before it's done.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Stores a result. It goes in the bucket's first entry unless that holds
+     * a deeper result that is either for the same position or from the
+     * current generation; then it goes in the second.
+     *
+     * @param key The board's hash.
+     * @param move The best move found, or -1.
+     * @param value The value found, for the player to move.
+     * @param depth The remaining depth searched, or UNLIMITED.
+     * @param bound Whether the value is EXACT, a LOWER or an UPPER bound.
+     */
+    public void store(long key, int move, int value, int depth, int bound) {
+        int current = generation;
+        int slot = ((int) key & mask) << 2;
+        long old = table[slot + 1];
+        if (old != 0 && depth(old) > depth &&
+                ((table[slot] ^ old) == key || generation(old) == current)) {
+            slot += 2;
+        }
+        long entry = entry(move, value, depth, bound) | (long) current << 24;
+        table[slot] = key ^ entry;
+        table[slot + 1] = entry;
+    }
+
+    /**
+     * @return The number of entries the table holds.
+     */
+    public int size() {
+        return table.length / 2;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        generation = 0;
+    }
+
+    /**
+     * Packs a result into a data word (of generation 0).
+     */
+    public static long entry(int move, int value, int depth, int bound) {
+        return (long) value << 32 | STORED | (long) bound << 16 | depth << 8 | (move + 1);
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFF) - 1;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 8 & 0xFF);
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 16 & 0x3);
+    }
+
+    public static int generation(long entry) {
+        return (int) (entry >>> 24 & 0xFF);
+    }
+
+    public static int value(long entry) {
+        return (int) (entry >> 32);
+    }
+}
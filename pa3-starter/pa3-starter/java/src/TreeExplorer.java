@@ -0,0 +1,149 @@
+// File:   TreeExplorer.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Answers questions about a search tree exported by Minimax.
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Streams a tree written by SearchTreeWriter and reports on it. Only a
+ * handful of records are ever held in memory, so trees with millions of
+ * nodes can be explored with the default heap.
+ */
+public class TreeExplorer {
+
+    /**
+     * Prints node counts, cutoffs and leaves per ply.
+     */
+    public static void summary(SearchTreeReader reader) throws IOException {
+        long[] nodes = new long[64];
+        long[] cutoffs = new long[64];
+        long[] terminals = new long[64];
+        long[] horizons = new long[64];
+        long records = 0, searches = 0, searched = 0;
+        int deepest = 0;
+
+        while (reader.next()) {
+            int ply = Math.min(reader.ply, nodes.length - 1);
+            records++;
+            nodes[ply]++;
+            if (reader.is(SearchTreeWriter.CUTOFF)) cutoffs[ply]++;
+            if (reader.is(SearchTreeWriter.TERMINAL)) terminals[ply]++;
+            if (reader.is(SearchTreeWriter.HORIZON)) horizons[ply]++;
+            if (ply == 0) {
+                searches++;
+                searched += reader.nodes;
+            }
+            deepest = Math.max(deepest, ply);
+        }
+
+        System.out.println("Searches: "+ searches +", records: "+ records +
+            ", states searched: "+ searched);
+        System.out.println(" ply        nodes      cutoffs    terminal     horizon");
+        for (int ply = 0; ply <= deepest; ply++) {
+            System.out.printf("%4d %12d %12d %11d %11d%n",
+                ply, nodes[ply], cutoffs[ply], terminals[ply], horizons[ply]);
+        }
+    }
+
+    /**
+     * Prints the k largest subtrees (k at least 1), optionally only those
+     * rooted at one ply.
+     */
+    public static void largest(SearchTreeReader reader, int k, int onlyPly) throws IOException {
+        // The top k so far, sorted by decreasing size.
+        long[] sizes = new long[k];
+        String[] lines = new String[k];
+        int found = 0;
+        int search = 1;
+
+        while (reader.next()) {
+            if ((onlyPly < 0 || reader.ply == onlyPly) &&
+                    (found < k || reader.nodes > sizes[found - 1])) {
+                int i = found < k ? found++ : k - 1;
+                while (i > 0 && sizes[i - 1] < reader.nodes) {
+                    sizes[i] = sizes[i - 1];
+                    lines[i] = lines[i - 1];
+                    i--;
+                }
+                sizes[i] = reader.nodes;
+                lines[i] = describe(reader, search);
+            }
+            if (reader.ply == 0) {
+                search++;
+            }
+        }
+
+        for (int i = 0; i < found; i++) {
+            System.out.println(lines[i]);
+        }
+    }
+
+    /**
+     * Prints the nodes at which alpha-beta pruning cut off, optionally only
+     * those at one ply, up to a limit.
+     */
+    public static void cutoffs(SearchTreeReader reader, int onlyPly, int limit) throws IOException {
+        int search = 1;
+        long count = 0;
+
+        while (reader.next()) {
+            if (reader.is(SearchTreeWriter.CUTOFF) && (onlyPly < 0 || reader.ply == onlyPly)) {
+                if (count++ < limit) {
+                    System.out.println(describe(reader, search));
+                }
+            }
+            if (reader.ply == 0) {
+                search++;
+            }
+        }
+        System.out.println("Cutoffs: "+ count);
+    }
+
+    /**
+     * @return A one line description of the reader's current record.
+     */
+    private static String describe(SearchTreeReader reader, int search) {
+        return String.format("search %d ply %d move %d %s nodes %d [alpha: %s, beta: %s] utility %s%s%s",
+            search, reader.ply, reader.move, reader.boardString(), reader.nodes,
+            reader.alpha, reader.beta, reader.score,
+            reader.is(SearchTreeWriter.CUTOFF) ? " cutoff" : "",
+            reader.is(SearchTreeWriter.TERMINAL) ? " terminal" :
+                reader.is(SearchTreeWriter.HORIZON) ? " horizon" : "");
+    }
+
+    /**
+     * Runs one query against a tree file.
+     * @param args The tree file, the query and its arguments.
+     */
+    public static void main(String[] args) {
+        String USAGE = "Usage: java TreeExplorer <treeFile> <query>\n" +
+                "  summary: Nodes, cutoffs, terminal and horizon nodes per ply.\n" +
+                "  largest <k> [ply]: The k largest subtrees, optionally rooted at one ply.\n" +
+                "  cutoffs [ply] [limit]: Nodes where pruning cut off (first 20 by default).\n" +
+                "Boards are printed row by row, using . for open spots.\n";
+
+        if (args.length < 2 || args[0].equals("-h")) {
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+
+        try (SearchTreeReader reader = new SearchTreeReader(Paths.get(args[0]))) {
+            if (args[1].equals("summary")) {
+                summary(reader);
+            } else if (args[1].equals("largest") && args.length > 2 && Integer.parseInt(args[2]) > 0) {
+                largest(reader, Integer.parseInt(args[2]),
+                    args.length > 3 ? Integer.parseInt(args[3]) : -1);
+            } else if (args[1].equals("cutoffs")) {
+                cutoffs(reader, args.length > 2 ? Integer.parseInt(args[2]) : -1,
+                    args.length > 3 ? Integer.parseInt(args[3]) : 20);
+            } else {
+                System.out.println(USAGE);
+            }
+        } catch (IOException e) {
+            System.out.println("Could not read search tree: "+ e.getMessage());
+            System.exit(1);
+        }
+    }
+}
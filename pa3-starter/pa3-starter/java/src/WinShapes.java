@@ -0,0 +1,143 @@
+// File:   WinShapes.java
+// Author: Bradford Torpey, CSC460 class
+// Date:   2026-10-18
+// Purpose: Builds the win lines of a board from a description of the rules.
+
+import java.util.ArrayList;
+
+/**
+ * Turns a rule description into the win line masks of a board. A
+ * description is a comma separated list of shapes:
+ *
+ *     row:k       k in a row horizontally
+ *     column:k    k in a row vertically
+ *     diagonal:k  k in a row along either diagonal
+ *     line:k      shorthand for row:k,column:k,diagonal:k
+ *     square:s    a filled s by s square
+ *     corners     the four corners of the board
+ *
+ * so ExtremeTicTacToe is "line:4,square:2,corners" on a 4x4 board. Boards
+ * are at most 8x8, so every line fits in a long.
+ */
+public class WinShapes {
+
+    /**
+     * Builds the geometry of a board.
+     *
+     * @param width The number of spots in a row.
+     * @param height The number of rows.
+     * @param rules The rule description.
+     * @return The board's shape and win lines.
+     * @throws IllegalArgumentException If the board is too big or the rules
+     *         can't be parsed or don't fit on the board, including any shape
+     *         that makes no win lines on it (which would leave a game no one
+     *         can win).
+     */
+    public static LineBoard.Geometry parse(int width, int height, String rules) {
+        if (width < 1 || height < 1 || width * height > 64) {
+            throw new IllegalArgumentException("Boards can have at most 64 spots: "+ width +"x"+ height);
+        }
+
+        ArrayList<Long> lines = new ArrayList<Long>();
+        for (String shape : rules.split(",")) {
+            String[] parts = shape.trim().split(":");
+            String name = parts[0];
+            int size = 0;
+            if (parts.length > 1) {
+                try {
+                    size = Integer.parseInt(parts[1]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid size in shape: "+ shape);
+                }
+                if (size < 1 || size > Math.max(width, height)) {
+                    throw new IllegalArgumentException("Shape doesn't fit on the board: "+ shape);
+                }
+            } else if (!name.equals("corners")) {
+                throw new IllegalArgumentException("Shape needs a size: "+ shape);
+            }
+
+            // Counted whether or not an earlier shape already made them.
+            int made = 0;
+            if (name.equals("row") || name.equals("line")) {
+                made += addRuns(lines, width, height, size, 1, 0);
+            }
+            if (name.equals("column") || name.equals("line")) {
+                made += addRuns(lines, width, height, size, 0, 1);
+            }
+            if (name.equals("diagonal") || name.equals("line")) {
+                made += addRuns(lines, width, height, size, 1, 1);
+                made += addRuns(lines, width, height, size, -1, 1);
+            }
+            if (name.equals("square")) {
+                for (int row = 0; row + size <= height; row++) {
+                    for (int col = 0; col + size <= width; col++) {
+                        long line = 0;
+                        for (int i = 0; i < size; i++) {
+                            for (int j = 0; j < size; j++) {
+                                line |= bit(width, row + i, col + j);
+                            }
+                        }
+                        addLine(lines, line);
+                        made++;
+                    }
+                }
+            }
+            if (name.equals("corners")) {
+                addLine(lines, bit(width, 0, 0) | bit(width, 0, width - 1) |
+                    bit(width, height - 1, 0) | bit(width, height - 1, width - 1));
+                made++;
+            }
+            if (!name.matches("row|column|diagonal|line|square|corners")) {
+                throw new IllegalArgumentException("Unknown shape: "+ shape);
+            }
+            if (made == 0) {
+                throw new IllegalArgumentException("Shape makes no win lines on a "+ width +"x"+ height +" board: "+ shape);
+            }
+        }
+
+        long[] masks = new long[lines.size()];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = lines.get(i);
+        }
+        return new LineBoard.Geometry(width, height, masks);
+    }
+
+    /**
+     * Adds every run of the given length in one direction.
+     *
+     * @return The number of runs that fit on the board.
+     */
+    private static int addRuns(ArrayList<Long> lines, int width, int height,
+            int length, int colStep, int rowStep) {
+        int count = 0;
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int lastRow = row + rowStep * (length - 1);
+                int lastCol = col + colStep * (length - 1);
+                if (lastRow < 0 || lastRow >= height || lastCol < 0 || lastCol >= width) {
+                    continue;
+                }
+                long line = 0;
+                for (int i = 0; i < length; i++) {
+                    line |= bit(width, row + rowStep * i, col + colStep * i);
+                }
+                addLine(lines, line);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds a line unless it's already there (e.g. a 1x1 board's corners).
+     */
+    private static void addLine(ArrayList<Long> lines, long line) {
+        if (!lines.contains(line)) {
+            lines.add(line);
+        }
+    }
+
+    private static long bit(int width, int row, int col) {
+        return 1L << (row * width + col);
+    }
+}